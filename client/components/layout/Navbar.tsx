@@ -4,7 +4,13 @@ import { useLocation } from 'react-router-dom';
 import { useAuth } from '../../context/AuthContext';
 import { useLayout } from '../../context/LayoutContext';
 import { alertApi } from '../../services/api';
-import { Alert, AlertSeverity } from '../../types';
+import { Alert, AlertEvent, AlertSeverity } from '../../types';
+
+// Apply one stream event to an alert list (newest first, like the list endpoint)
+const withAlertEvent = (alerts: Alert[], event: AlertEvent): Alert[] => {
+  const rest = alerts.filter((alert) => alert.id !== event.alert.id);
+  return event.type === 'CREATED' ? [event.alert, ...rest] : rest;
+};
 
 export const Navbar: React.FC = () => {
   const { user, logout } = useAuth();
@@ -13,36 +19,54 @@ export const Navbar: React.FC = () => {
   
   const [isProfileOpen, setIsProfileOpen] = useState(false);
   const [isNotificationsOpen, setIsNotificationsOpen] = useState(false);
-  const [alerts, setAlerts] = useState<Alert[]>([]);
-  const [alertCount, setAlertCount] = useState(0);
+  const [allAlerts, setAllAlerts] = useState<Alert[]>([]);
+  const alerts = allAlerts.slice(0, 5); // Show only top 5
+  const alertCount = allAlerts.length;
   
   const profileRef = useRef<HTMLDivElement>(null);
   const notifyRef = useRef<HTMLDivElement>(null);
 
-  // Load alerts for admin users
+  // Load alerts for admin users, then keep them current from the alert stream
   useEffect(() => {
     if (user?.role === 'ROLE_ADMIN' || user?.role === 'ROLE_SUPER_ADMIN') {
-      loadAlerts();
-      // Refresh alerts every 5 minutes
-      const interval = setInterval(loadAlerts, 5 * 60 * 1000);
-      return () => clearInterval(interval);
+      return alertApi.streamAlerts(applyAlertEvent, loadAlerts);
     }
   }, [user]);
 
+  // Stream events received while the list is being (re)loaded; null once the list is in place
+  const pendingEvents = useRef<AlertEvent[] | null>(null);
+  const loadGeneration = useRef(0);
+
+  // Reload on every (re)connect; events that arrive meanwhile are replayed on top of the fresh list,
+  // since the list may have been read before they committed
   const loadAlerts = async () => {
+    const generation = ++loadGeneration.current;
+    pendingEvents.current = [];
+    let list: Alert[] | null = null;
     try {
-      const data = await alertApi.getActiveAlerts();
-      setAlerts(data.slice(0, 5)); // Show only top 5
-      setAlertCount(data.length);
+      list = await alertApi.getActiveAlerts();
     } catch (error) {
       console.error('Failed to load alerts:', error);
     }
+    if (generation !== loadGeneration.current) return; // a newer reconnect is loading
+    const buffered = pendingEvents.current ?? [];
+    pendingEvents.current = null;
+    setAllAlerts((current) => buffered.reduce(withAlertEvent, list ?? current));
+  };
+
+  const applyAlertEvent = (event: AlertEvent) => {
+    if (pendingEvents.current) {
+      pendingEvents.current.push(event);
+      return;
+    }
+    setAllAlerts((current) => withAlertEvent(current, event));
   };
 
   const handleDismissAlert = async (alertId: number) => {
     try {
       await alertApi.dismissAlert(alertId);
-      loadAlerts(); // Reload alerts after dismissal
+      // The stream also delivers the dismissal; removing it here keeps the UI snappy
+      setAllAlerts((current) => current.filter((alert) => alert.id !== alertId));
     } catch (error) {
       console.error('Failed to dismiss alert:', error);
     }
@@ -51,7 +51,7 @@ export const ExecutivePage: React.FC = () => {
 
     const handleUpdateProject = async (id: number, formData: CreateProjectRequest) => {
         try {
-            await projectApi.updateProject(id, formData);
+            await projectApi.updateProject(id, formData, editingProject?.version);
             showToast('Project updated successfully', 'success');
             setEditingProject(null);
             setSelectedProject(null);
@@ -36,7 +36,7 @@ export const InstallationPage: React.FC = () => {
 
     const handleUpdateInstallation = async (projectId: number, formData: UpdateInstallationDataRequest) => {
         try {
-            await projectApi.updateInstallationData(projectId, formData);
+            await projectApi.updateInstallationData(projectId, formData, selectedProject?.version);
             showToast('Installation status updated successfully', 'success');
             setShowStatusModal(false);
             setSelectedProject(null);
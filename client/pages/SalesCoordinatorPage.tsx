@@ -37,7 +37,7 @@ export const SalesCoordinatorPage: React.FC = () => {
 
     const handleUpdateSalesData = async (projectId: number, formData: UpdateSalesDataRequest) => {
         try {
-            await projectApi.updateSalesData(projectId, formData);
+            await projectApi.updateSalesData(projectId, formData, selectedProject?.version);
             showToast('Sales data updated successfully', 'success');
             setShowEditModal(false);
             setSelectedProject(null);
@@ -1,5 +1,5 @@
 import axios from 'axios';
-import { CRMEntry, AuthResponse, User, ForgotPasswordRequest, VerifyOtpRequest, ChangePasswordRequest, UpdatePasswordRequest, ApiResponse, RegisterRequest, Project, CreateProjectRequest, UpdateSalesDataRequest, UpdateAccountsDataRequest, UpdateInstallationDataRequest, StageTransitionRequest, ProjectStage, Alert, AlertSummary, Analytics, StageDistribution, MonthlyTrend, FinancialSummary } from '../types';
+import { CRMEntry, AuthResponse, User, ForgotPasswordRequest, VerifyOtpRequest, ChangePasswordRequest, UpdatePasswordRequest, ApiResponse, RegisterRequest, Project, CreateProjectRequest, UpdateSalesDataRequest, UpdateAccountsDataRequest, UpdateInstallationDataRequest, StageTransitionRequest, ProjectStage, ProjectPageParams, PagedResponse, ProjectSummary, ProjectSuggestion, Alert, AlertEvent, AlertSummary, Analytics, StageDistribution, MonthlyTrend, FinancialSummary } from '../types';
 
 // ============================================================================
 // ⚙️ API CONFIGURATION
@@ -51,6 +51,9 @@ const handleApiError = (error: any) => {
     }
 };
 
+// If-Match header for project updates; the server answers 412/409 when the project changed since it was loaded
+const ifMatch = (version?: number) => (version !== undefined && version !== null ? { 'If-Match': `"${version}"` } : {});
+
 // Helper to clean payload
 const cleanPayload = (data: any): any => {
     if (Array.isArray(data)) {
@@ -286,9 +289,9 @@ export const projectApi = {
   },
 
   // Executive - Update Project
-  updateProject: async (id: number, data: CreateProjectRequest): Promise<Project> => {
+  updateProject: async (id: number, data: CreateProjectRequest, version?: number): Promise<Project> => {
     try {
-        const res = await api.put(`/projects/${id}`, data);
+        const res = await api.put(`/projects/${id}`, data, { headers: ifMatch(version) });
         return res.data.data;
     } catch (error) { throw handleApiError(error); }
   },
@@ -325,9 +328,9 @@ export const projectApi = {
   },
 
   // Sales - Update Sales Data
-  updateSalesData: async (id: number, data: UpdateSalesDataRequest): Promise<Project> => {
+  updateSalesData: async (id: number, data: UpdateSalesDataRequest, version?: number): Promise<Project> => {
     try {
-        const res = await api.put(`/projects/${id}/sales`, data);
+        const res = await api.put(`/projects/${id}/sales`, data, { headers: ifMatch(version) });
         return res.data.data;
     } catch (error) { throw handleApiError(error); }
   },
@@ -349,9 +352,9 @@ export const projectApi = {
   },
 
   // Accounts - Update Accounts Data
-  updateAccountsData: async (id: number, data: UpdateAccountsDataRequest): Promise<Project> => {
+  updateAccountsData: async (id: number, data: UpdateAccountsDataRequest, version?: number): Promise<Project> => {
     try {
-        const res = await api.put(`/projects/${id}/accounts`, data);
+        const res = await api.put(`/projects/${id}/accounts`, data, { headers: ifMatch(version) });
         return res.data.data;
     } catch (error) { throw handleApiError(error); }
   },
@@ -365,9 +368,9 @@ export const projectApi = {
   },
 
   // Installation - Update Installation Data
-  updateInstallationData: async (id: number, data: UpdateInstallationDataRequest): Promise<Project> => {
+  updateInstallationData: async (id: number, data: UpdateInstallationDataRequest, version?: number): Promise<Project> => {
     try {
-        const res = await api.put(`/projects/${id}/installation`, data);
+        const res = await api.put(`/projects/${id}/installation`, data, { headers: ifMatch(version) });
         return res.data.data;
     } catch (error) { throw handleApiError(error); }
   },
@@ -410,6 +413,30 @@ export const projectApi = {
         const res = await api.get(`/projects/stage/${stage}`);
         return res.data.data;
     } catch (error) { throw handleApiError(error); }
+  },
+
+  // Paged variant of the list endpoints above, e.g. getProjectsPage('/projects/sales', { cursor: '' })
+  getProjectsPage: async (path: string, params: ProjectPageParams): Promise<PagedResponse<ProjectSummary | Project>> => {
+    try {
+        const res = await api.get(path, { params });
+        return res.data.data;
+    } catch (error) { throw handleApiError(error); }
+  },
+
+  // Instant "already exists?" suggestions for the create form (served from memory)
+  suggestProjects: async (q: string, limit = 10): Promise<ProjectSuggestion[]> => {
+    try {
+        const res = await api.get('/projects/suggest', { params: { q, limit } });
+        return res.data.data;
+    } catch (error) { throw handleApiError(error); }
+  },
+
+  // Ranked search over school, contact, place, district, project name and contact number
+  searchProjects: async (q: string, page = 0, size = 20): Promise<PagedResponse<ProjectSummary>> => {
+    try {
+        const res = await api.get('/projects/search', { params: { q, page, size } });
+        return res.data.data;
+    } catch (error) { throw handleApiError(error); }
   }
 };
 
@@ -454,6 +481,67 @@ export const alertApi = {
     try {
         await api.post(`/alerts/${alertId}/dismiss`);
     } catch (error) { throw handleApiError(error); }
+  },
+
+  // Live alert changes (Server-Sent Events). onConnected fires on every (re)connect so the caller can
+  // reload the list once; deltas then arrive through onEvent. Returns a function that closes the stream.
+  // Uses fetch instead of EventSource because the stream needs the Authorization header.
+  streamAlerts: (onEvent: (event: AlertEvent) => void, onConnected: () => void): (() => void) => {
+    const controller = new AbortController();
+    let retryDelay = 1000;
+
+    const connect = async () => {
+      while (!controller.signal.aborted) {
+        try {
+          const token = localStorage.getItem("token");
+          const res = await fetch(`${API_URL}/alerts/stream`, {
+            headers: { Accept: 'text/event-stream', ...(token ? { Authorization: `Bearer ${token}` } : {}) },
+            signal: controller.signal,
+          });
+          if (res.status === 401 || res.status === 403) {
+            window.dispatchEvent(new Event('auth:unauthorized'));
+            return;
+          }
+          if (!res.ok || !res.body) throw new Error(`Alert stream failed: ${res.status}`);
+
+          const reader = res.body.getReader();
+          const decoder = new TextDecoder();
+          let buffer = '';
+          while (true) {
+            const { done, value } = await reader.read();
+            if (done) break;
+            buffer += decoder.decode(value, { stream: true });
+            // Events are separated by a blank line; comment lines (heartbeats) start with ':'
+            let boundary;
+            while ((boundary = buffer.indexOf('\n\n')) >= 0) {
+              const block = buffer.slice(0, boundary);
+              buffer = buffer.slice(boundary + 2);
+              let name = 'message';
+              const data: string[] = [];
+              for (const line of block.split('\n')) {
+                if (line.startsWith('event:')) name = line.slice(6).trim();
+                else if (line.startsWith('data:')) data.push(line.slice(5).trimStart());
+              }
+              if (name === 'connected') {
+                retryDelay = 1000;
+                onConnected();
+              } else if (name === 'alert' && data.length > 0) {
+                onEvent(JSON.parse(data.join('\n')));
+              }
+            }
+          }
+        } catch (error) {
+          if (controller.signal.aborted) return;
+          console.error('Alert stream error:', error);
+        }
+        // Server closed the stream (timeout, restart or we fell behind): reconnect with backoff
+        await new Promise((resolve) => setTimeout(resolve, retryDelay));
+        retryDelay = Math.min(retryDelay * 2, 60 * 1000);
+      }
+    };
+
+    connect();
+    return () => controller.abort();
   }
 };
 
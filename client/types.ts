@@ -291,6 +291,44 @@ export interface Project {
   lastUpdatedBy?: string;
   lastUpdatedAt?: string;
   isLocked?: boolean;
+  version?: number;  // Send back (If-Match) on updates to detect concurrent edits
+}
+
+// Paged list responses (offset mode: page/size/sort, cursor mode: cursor/size)
+export interface ProjectPageParams {
+  page?: number;
+  size?: number;
+  sort?: string;       // e.g. "school,asc"
+  cursor?: string;     // '' for the first slice, then the previous nextCursor
+  view?: 'summary' | 'full';  // summary rows by default
+}
+
+// List-row shape returned by paged list endpoints (full Project via getProjectById)
+export type ProjectSummary = Omit<Project,
+  | 'executiveRemarks' | 'stageChangedBy'
+  | 'pendingDelivery' | 'quotationRemarks' | 'salesRemarks' | 'salesUpdatedTimestamp'
+  | 'totalReceived' | 'paymentHistory' | 'paymentRemarks' | 'paymentProofUrl' | 'accountsUpdatedTimestamp'
+  | 'installationRemarks' | 'installationUpdatedTimestamp'>;
+
+// Typeahead match from GET /projects/suggest
+export interface ProjectSuggestion {
+  id: number;
+  school: string;
+  contactPerson?: string;
+  contactNumber?: string;
+  place?: string;
+  district?: string;
+  matchedField: 'school' | 'contactPerson' | 'contactNumber';
+}
+
+export interface PagedResponse<T> {
+  content: T[];
+  size: number;
+  hasNext: boolean;
+  page?: number;
+  totalElements?: number;
+  totalPages?: number;
+  nextCursor?: string;
 }
 
 // Alert System Types
@@ -317,11 +355,18 @@ export interface Alert {
   daysOverdue: number;
 }
 
+// Delta pushed on /alerts/stream
+export interface AlertEvent {
+  type: 'CREATED' | 'DISMISSED';
+  alert: Alert;
+}
+
 export interface AlertSummary {
   totalAlerts: number;
   criticalAlerts: number;
   warningAlerts: number;
   infoAlerts: number;
+  alertsByType: Record<AlertType, number>;
 }
 
 export interface CreateProjectRequest {
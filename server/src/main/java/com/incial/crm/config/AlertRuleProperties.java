@@ -0,0 +1,43 @@
+package com.incial.crm.config;
+
+import com.incial.crm.entity.ProjectAlert.AlertSeverity;
+import com.incial.crm.entity.ProjectAlert.AlertType;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Delay alert rules (alerts.rules in application.yml).
+ * A rule fires for a project that has spent more than thresholdDays in stage, optionally only in one
+ * region and/or district. Rules are checked in order, and for one project the first matching rule of
+ * each alert type wins, so list scoped (stricter) rules before the general rule of the same type.
+ */
+@Component
+@ConfigurationProperties(prefix = "alerts")
+@Data
+public class AlertRuleProperties {
+
+    private List<Rule> rules = new ArrayList<>();
+
+    @Data
+    public static class Rule {
+        private String name;
+        private AlertType alertType;
+        private String stage;
+        private int thresholdDays;
+        private AlertSeverity severity = AlertSeverity.WARNING;
+
+        /**
+         * Placeholders: {school}, {stage}, {days}, {threshold}, {region}, {district},
+         * {invoiceAmount}, {pendingAmount}, {expectedDeliveryDate}
+         */
+        private String message;
+
+        // Optional scope; null matches every project (compared case-insensitively)
+        private String region;
+        private String district;
+    }
+}
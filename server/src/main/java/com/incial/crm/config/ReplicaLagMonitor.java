@@ -0,0 +1,61 @@
+package com.incial.crm.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Polls the replica's replay lag and bypasses it while the lag exceeds datasource.replica.max-lag
+ * or the replica cannot be reached. Lag is only measured on PostgreSQL; any other database
+ * (e.g. two local H2 instances) is treated as up to date as long as it answers.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class ReplicaLagMonitor {
+
+    // 0 when everything received has been replayed (an idle standby) or when the server is not a standby
+    private static final String POSTGRES_LAG_QUERY =
+            "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    private final DataSource replicaDataSource;
+    private final ReplicaRoutingDataSource routingDataSource;
+
+    @Scheduled(fixedDelayString = "${datasource.replica.lag-check-interval:PT10S}")
+    public void checkLag() {
+        Duration maxLag = routingDataSource.getMaxLag();
+        try (Connection connection = replicaDataSource.getConnection()) {
+            Duration lag = measureLag(connection);
+            if (lag.compareTo(maxLag) > 0) {
+                log.warn("Read replica is {} ms behind (tolerance {} ms)", lag.toMillis(), maxLag.toMillis());
+                routingDataSource.setReplicaAvailable(false);
+            } else {
+                routingDataSource.setReplicaAvailable(true);
+            }
+        } catch (SQLException e) {
+            log.warn("Read replica check failed: {}", e.getMessage());
+            routingDataSource.setReplicaAvailable(false);
+        }
+    }
+
+    private Duration measureLag(Connection connection) throws SQLException {
+        if (!"PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName())) {
+            if (!connection.isValid(5)) {
+                throw new SQLException("replica connection is not valid");
+            }
+            return Duration.ZERO;
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(POSTGRES_LAG_QUERY)) {
+            rs.next();
+            return Duration.ofMillis(Math.round(rs.getDouble(1) * 1000));
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.incial.crm.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Sends read-only transactions to the replica pool and everything else to the primary.
+ * Must sit behind a LazyConnectionDataSourceProxy so the read-only flag is known when the connection is fetched.
+ *
+ * A read still goes to the primary when the replica is marked stale (see ReplicaLagMonitor)
+ * or when the same user committed a write within the last maxLag, so users always see their own changes,
+ * and inside onPrimary(...) for reads that must not be stale.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target { PRIMARY, REPLICA }
+
+    private static final ThreadLocal<Boolean> PRIMARY_HINT = new ThreadLocal<>();
+
+    private final Duration maxLag;
+
+    // Last committed write per user, bounded so idle users age out
+    private final Map<String, Instant> lastWriteByUser;
+
+    private volatile boolean replicaAvailable = true;
+
+    public ReplicaRoutingDataSource(Duration maxLag, int maxTrackedUsers) {
+        this.maxLag = maxLag;
+        this.lastWriteByUser = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Instant> eldest) {
+                return size() > maxTrackedUsers;
+            }
+        };
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return Target.PRIMARY;
+        }
+
+        String user = currentUser();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            rememberWriteOnCommit(user);
+            return Target.PRIMARY;
+        }
+
+        if (replicaAvailable && !wroteRecently(user) && PRIMARY_HINT.get() == null) {
+            return Target.REPLICA;
+        }
+        return Target.PRIMARY;
+    }
+
+    /**
+     * Run work with reads routed to the primary. Routing happens when a transaction first touches the database,
+     * so this only takes effect if the current transaction has not run a statement yet (or there is none).
+     */
+    public static <T> T onPrimary(Supplier<T> work) {
+        Boolean previous = PRIMARY_HINT.get();
+        PRIMARY_HINT.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                PRIMARY_HINT.remove();
+            }
+        }
+    }
+
+    /**
+     * Stop (or resume) routing reads to the replica
+     */
+    public void setReplicaAvailable(boolean replicaAvailable) {
+        if (this.replicaAvailable != replicaAvailable) {
+            log.warn("Read replica {}", replicaAvailable ? "back in use" : "bypassed, reads go to the primary");
+        }
+        this.replicaAvailable = replicaAvailable;
+    }
+
+    public boolean isReplicaAvailable() {
+        return replicaAvailable;
+    }
+
+    public Duration getMaxLag() {
+        return maxLag;
+    }
+
+    private void rememberWriteOnCommit(String user) {
+        if (user == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                synchronized (lastWriteByUser) {
+                    lastWriteByUser.put(user, Instant.now());
+                }
+            }
+        });
+    }
+
+    private boolean wroteRecently(String user) {
+        if (user == null) {
+            return false;
+        }
+        Instant lastWrite;
+        synchronized (lastWriteByUser) {
+            lastWrite = lastWriteByUser.get(user);
+        }
+        return lastWrite != null && lastWrite.plus(maxLag).isAfter(Instant.now());
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
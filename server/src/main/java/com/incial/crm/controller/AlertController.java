@@ -3,17 +3,24 @@ package com.incial.crm.controller;
 import com.incial.crm.dto.AlertDto;
 import com.incial.crm.dto.AlertSummaryDto;
 import com.incial.crm.dto.ApiResponse;
-import com.incial.crm.entity.ProjectAlert;
+import com.incial.crm.dto.PagedResponse;
 import com.incial.crm.entity.ProjectAlert.AlertSeverity;
+import com.incial.crm.entity.ProjectAlert.AlertType;
+import com.incial.crm.scheduler.AlertScheduler;
 import com.incial.crm.service.AlertService;
+import com.incial.crm.service.AlertStreamService;
+import com.incial.crm.service.ScheduledJobRunner;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.OptionalInt;
 
 @RestController
 @RequestMapping("/api/v1/alerts")
@@ -22,23 +29,53 @@ import java.util.stream.Collectors;
 public class AlertController {
     
     private final AlertService alertService;
+    private final AlertStreamService alertStreamService;
+    private final AlertScheduler alertScheduler;
     
     /**
-     * Get all active alerts - accessible to admin roles
+     * Get active alerts, newest first - accessible to admin roles.
+     * Optional filters: ?severity=CRITICAL&type=PAYMENT_DELAY.
+     * With page and/or size the result is a PagedResponse; without them the full list is returned.
      */
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
-    public ResponseEntity<ApiResponse<List<AlertDto>>> getActiveAlerts() {
-        List<ProjectAlert> alerts = alertService.getActiveAlerts();
-        List<AlertDto> alertDtos = alerts.stream()
-            .map(this::convertToDto)
-            .collect(Collectors.toList());
-        
-        return ResponseEntity.ok(ApiResponse.<List<AlertDto>>builder()
-            .success(true)
-            .message("Active alerts retrieved successfully")
-            .data(alertDtos)
-            .build());
+    public ResponseEntity<ApiResponse<?>> getActiveAlerts(
+            @RequestParam(required = false) AlertSeverity severity,
+            @RequestParam(required = false) AlertType type,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        try {
+            if (page != null || size != null) {
+                PagedResponse<AlertDto> alerts = alertService.getActiveAlerts(severity, type, page, size);
+                return ResponseEntity.ok(ApiResponse.<PagedResponse<AlertDto>>builder()
+                    .success(true)
+                    .message("Active alerts retrieved successfully")
+                    .data(alerts)
+                    .build());
+            }
+            
+            return ResponseEntity.ok(ApiResponse.<List<AlertDto>>builder()
+                .success(true)
+                .message("Active alerts retrieved successfully")
+                .data(alertService.getActiveAlerts(severity, type))
+                .build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.<List<AlertDto>>builder()
+                    .success(false)
+                    .message(e.getMessage())
+                    .build());
+        }
+    }
+    
+    /**
+     * Live alert changes as Server-Sent Events ("alert" events carrying an AlertEventDto).
+     * Clients load the list once on the "connected" event and then apply the deltas.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public SseEmitter streamAlerts(Authentication authentication) {
+        return alertStreamService.subscribe(authentication.getName());
     }
     
     /**
@@ -47,15 +84,10 @@ public class AlertController {
     @GetMapping("/project/{projectId}")
     @PreAuthorize("hasAnyRole('EXECUTIVE', 'SALES_COORDINATOR', 'ACCOUNTS', 'INSTALLATION', 'ADMIN', 'SUPER_ADMIN')")
     public ResponseEntity<ApiResponse<List<AlertDto>>> getProjectAlerts(@PathVariable Long projectId) {
-        List<ProjectAlert> alerts = alertService.getProjectAlerts(projectId);
-        List<AlertDto> alertDtos = alerts.stream()
-            .map(this::convertToDto)
-            .collect(Collectors.toList());
-        
         return ResponseEntity.ok(ApiResponse.<List<AlertDto>>builder()
             .success(true)
             .message("Project alerts retrieved successfully")
-            .data(alertDtos)
+            .data(alertService.getProjectAlerts(projectId))
             .build());
     }
     
@@ -65,12 +97,7 @@ public class AlertController {
     @GetMapping("/summary")
     @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
     public ResponseEntity<ApiResponse<AlertSummaryDto>> getAlertSummary() {
-        AlertSummaryDto summary = AlertSummaryDto.builder()
-            .totalAlerts(alertService.getActiveAlertCount())
-            .criticalAlerts(alertService.getAlertCountBySeverity(AlertSeverity.CRITICAL))
-            .warningAlerts(alertService.getAlertCountBySeverity(AlertSeverity.WARNING))
-            .infoAlerts(alertService.getAlertCountBySeverity(AlertSeverity.INFO))
-            .build();
+        AlertSummaryDto summary = alertService.getAlertSummary();
         
         return ResponseEntity.ok(ApiResponse.<AlertSummaryDto>builder()
             .success(true)
@@ -85,12 +112,19 @@ public class AlertController {
     @PostMapping("/generate")
     @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
     public ResponseEntity<ApiResponse<String>> generateAlerts() {
-        alertService.generateDelayAlerts();
+        OptionalInt created = alertScheduler.runDelayAlertScan(ScheduledJobRunner.TRIGGER_MANUAL);
+        if (created.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(ApiResponse.<String>builder()
+                    .success(false)
+                    .message("Alert generation is already running, try again later")
+                    .build());
+        }
         
         return ResponseEntity.ok(ApiResponse.<String>builder()
             .success(true)
             .message("Alert generation triggered successfully")
-            .data("Alerts generated")
+            .data(created.getAsInt() + " alerts generated")
             .build());
     }
     
@@ -111,23 +145,4 @@ public class AlertController {
             .data("Alert dismissed")
             .build());
     }
-    
-    /**
-     * Convert ProjectAlert entity to DTO
-     */
-    private AlertDto convertToDto(ProjectAlert alert) {
-        return AlertDto.builder()
-            .id(alert.getId())
-            .projectId(alert.getProject().getId())
-            .projectName(alert.getProject().getSchool())
-            .alertType(alert.getAlertType())
-            .severity(alert.getSeverity())
-            .message(alert.getMessage())
-            .createdAt(alert.getCreatedAt())
-            .dismissedAt(alert.getDismissedAt())
-            .dismissedBy(alert.getDismissedBy())
-            .isActive(alert.getIsActive())
-            .daysOverdue(alert.getDaysOverdue())
-            .build();
-    }
 }
@@ -6,6 +6,8 @@ import com.incial.crm.dto.FinancialSummaryDto;
 import com.incial.crm.dto.MonthlyTrendDto;
 import com.incial.crm.dto.StageDistributionDto;
 import com.incial.crm.service.AnalyticsService;
+import com.incial.crm.service.AnalyticsSnapshotCache;
+import com.incial.crm.service.AnalyticsSnapshotCache.Snapshot;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -22,6 +24,10 @@ import java.util.List;
 public class AnalyticsController {
 
     private final AnalyticsService analyticsService;
+    private final AnalyticsSnapshotCache snapshotCache;
+
+    // Seconds since the served figures were computed
+    public static final String SNAPSHOT_AGE_HEADER = "X-Snapshot-Age";
 
     /**
      * Get comprehensive dashboard analytics
@@ -32,12 +38,14 @@ public class AnalyticsController {
     public ResponseEntity<ApiResponse<AnalyticsDto>> getDashboardAnalytics() {
         log.info("Request received: GET /api/v1/analytics/dashboard");
         try {
-            AnalyticsDto analytics = analyticsService.getDashboardAnalytics();
-            return ResponseEntity.ok(ApiResponse.<AnalyticsDto>builder()
-                    .success(true)
-                    .message("Analytics data retrieved successfully")
-                    .data(analytics)
-                    .build());
+            Snapshot<AnalyticsDto> analytics = snapshotCache.get("dashboard", analyticsService::getDashboardAnalytics);
+            return ResponseEntity.ok()
+                    .header(SNAPSHOT_AGE_HEADER, String.valueOf(analytics.getAgeSeconds()))
+                    .body(ApiResponse.<AnalyticsDto>builder()
+                        .success(true)
+                        .message("Analytics data retrieved successfully")
+                        .data(analytics.getValue())
+                        .build());
         } catch (Exception e) {
             log.error("Error fetching dashboard analytics", e);
             return ResponseEntity.internalServerError().body(ApiResponse.<AnalyticsDto>builder()
@@ -56,12 +64,14 @@ public class AnalyticsController {
     public ResponseEntity<ApiResponse<List<StageDistributionDto>>> getStageDistribution() {
         log.info("Request received: GET /api/v1/analytics/stage-distribution");
         try {
-            List<StageDistributionDto> distribution = analyticsService.getStageDistribution();
-            return ResponseEntity.ok(ApiResponse.<List<StageDistributionDto>>builder()
-                    .success(true)
-                    .message("Stage distribution retrieved successfully")
-                    .data(distribution)
-                    .build());
+            Snapshot<List<StageDistributionDto>> distribution = snapshotCache.get("stage-distribution", analyticsService::getStageDistribution);
+            return ResponseEntity.ok()
+                    .header(SNAPSHOT_AGE_HEADER, String.valueOf(distribution.getAgeSeconds()))
+                    .body(ApiResponse.<List<StageDistributionDto>>builder()
+                        .success(true)
+                        .message("Stage distribution retrieved successfully")
+                        .data(distribution.getValue())
+                        .build());
         } catch (Exception e) {
             log.error("Error fetching stage distribution", e);
             return ResponseEntity.internalServerError().body(ApiResponse.<List<StageDistributionDto>>builder()
@@ -80,12 +90,14 @@ public class AnalyticsController {
     public ResponseEntity<ApiResponse<List<MonthlyTrendDto>>> getMonthlyTrends() {
         log.info("Request received: GET /api/v1/analytics/monthly-trends");
         try {
-            List<MonthlyTrendDto> trends = analyticsService.getMonthlyTrends();
-            return ResponseEntity.ok(ApiResponse.<List<MonthlyTrendDto>>builder()
-                    .success(true)
-                    .message("Monthly trends retrieved successfully")
-                    .data(trends)
-                    .build());
+            Snapshot<List<MonthlyTrendDto>> trends = snapshotCache.get("monthly-trends", analyticsService::getMonthlyTrends);
+            return ResponseEntity.ok()
+                    .header(SNAPSHOT_AGE_HEADER, String.valueOf(trends.getAgeSeconds()))
+                    .body(ApiResponse.<List<MonthlyTrendDto>>builder()
+                        .success(true)
+                        .message("Monthly trends retrieved successfully")
+                        .data(trends.getValue())
+                        .build());
         } catch (Exception e) {
             log.error("Error fetching monthly trends", e);
             return ResponseEntity.internalServerError().body(ApiResponse.<List<MonthlyTrendDto>>builder()
@@ -104,12 +116,14 @@ public class AnalyticsController {
     public ResponseEntity<ApiResponse<FinancialSummaryDto>> getFinancialSummary() {
         log.info("Request received: GET /api/v1/analytics/financial-summary");
         try {
-            FinancialSummaryDto summary = analyticsService.getFinancialSummary();
-            return ResponseEntity.ok(ApiResponse.<FinancialSummaryDto>builder()
-                    .success(true)
-                    .message("Financial summary retrieved successfully")
-                    .data(summary)
-                    .build());
+            Snapshot<FinancialSummaryDto> summary = snapshotCache.get("financial-summary", analyticsService::getFinancialSummary);
+            return ResponseEntity.ok()
+                    .header(SNAPSHOT_AGE_HEADER, String.valueOf(summary.getAgeSeconds()))
+                    .body(ApiResponse.<FinancialSummaryDto>builder()
+                        .success(true)
+                        .message("Financial summary retrieved successfully")
+                        .data(summary.getValue())
+                        .build());
         } catch (Exception e) {
             log.error("Error fetching financial summary", e);
             return ResponseEntity.internalServerError().body(ApiResponse.<FinancialSummaryDto>builder()
@@ -1,16 +1,31 @@
 package com.incial.crm.controller;
 
 import com.incial.crm.dto.*;
+import com.incial.crm.exception.DuplicateContactNumberException;
+import com.incial.crm.exception.ProjectVersionMismatchException;
+import com.incial.crm.service.ProjectExportService;
+import com.incial.crm.service.ProjectImportService;
 import com.incial.crm.service.ProjectService;
+import com.incial.crm.service.ProjectTypeaheadIndex;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -22,6 +37,17 @@ public class ProjectController {
     @Autowired
     private ProjectService projectService;
 
+    @Autowired
+    private ProjectImportService projectImportService;
+
+    @Autowired
+    private ProjectExportService projectExportService;
+
+    @Autowired
+    private ProjectTypeaheadIndex typeaheadIndex;
+
+    private static final String CONCURRENT_UPDATE_MESSAGE = "Project was modified by someone else, reload and try again";
+
     // Executive - Create Project (Lead)
     @PostMapping("/create")
     @PreAuthorize("hasAnyRole('EXECUTIVE', 'ADMIN', 'SUPER_ADMIN')")
@@ -41,9 +67,42 @@ public class ProjectController {
                     .message("Project created successfully")
                     .data(project)
                     .build());
+        } catch (Exception e) {
+            return failure(e);
+        }
+    }
+
+    // Executive - Bulk import leads from CSV (header row required) or NDJSON, streamed from the request body
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    @PreAuthorize("hasAnyRole('EXECUTIVE', 'ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<ApiResponse<ProjectImportResultDto>> importProjects(
+            HttpServletRequest request,
+            Authentication authentication) {
+        try {
+            String userName = authentication.getName();
+            String userRole = authentication.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .findFirst()
+                    .orElse("ROLE_EXECUTIVE");
+            String format = request.getContentType().startsWith("text/csv")
+                    ? ProjectImportService.FORMAT_CSV
+                    : ProjectImportService.FORMAT_NDJSON;
+            Charset charset = request.getCharacterEncoding() != null
+                    ? Charset.forName(request.getCharacterEncoding())
+                    : StandardCharsets.UTF_8;
+
+            ProjectImportResultDto result;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(request.getInputStream(), charset))) {
+                result = projectImportService.importProjects(reader, format, userName, userRole);
+            }
+            return ResponseEntity.ok(ApiResponse.<ProjectImportResultDto>builder()
+                    .success(true)
+                    .message("Imported " + result.getImported() + " of " + result.getTotalRows() + " rows")
+                    .data(result)
+                    .build());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(ApiResponse.<ProjectDto>builder()
+                    .body(ApiResponse.<ProjectImportResultDto>builder()
                             .success(false)
                             .message(e.getMessage())
                             .build());
@@ -56,6 +115,7 @@ public class ProjectController {
     public ResponseEntity<ApiResponse<ProjectDto>> updateProject(
             @PathVariable Long id,
             @Valid @RequestBody CreateProjectRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             Authentication authentication) {
         try {
             String userName = authentication.getName();
@@ -64,18 +124,16 @@ public class ProjectController {
                     .findFirst()
                     .orElse("ROLE_EXECUTIVE");
             
-            ProjectDto project = projectService.updateProject(id, request, userName, userRole);
-            return ResponseEntity.ok(ApiResponse.<ProjectDto>builder()
-                    .success(true)
-                    .message("Project updated successfully")
-                    .data(project)
-                    .build());
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+            ProjectDto project = projectService.updateProject(id, request, userName, userRole, parseIfMatch(ifMatch));
+            return ResponseEntity.ok()
+                    .eTag(String.valueOf(project.getVersion()))
                     .body(ApiResponse.<ProjectDto>builder()
-                            .success(false)
-                            .message(e.getMessage())
+                            .success(true)
+                            .message("Project updated successfully")
+                            .data(project)
                             .build());
+        } catch (Exception e) {
+            return failure(e);
         }
     }
 
@@ -94,33 +152,43 @@ public class ProjectController {
                     .orElse("ROLE_EXECUTIVE");
             
             ProjectDto project = projectService.transitionStage(
-                    id, request.getToStage(), request.getRemarks(), userName, userRole, false);
+                    id, request.getToStage(), request.getRemarks(), userName, userRole);
             return ResponseEntity.ok(ApiResponse.<ProjectDto>builder()
                     .success(true)
                     .message("Stage transitioned successfully")
                     .data(project)
                     .build());
         } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(ApiResponse.<ProjectDto>builder()
-                            .success(false)
-                            .message(e.getMessage())
-                            .build());
+            return failure(e);
         }
     }
 
     // Get all projects for Executive (their own projects in early stages)
     @GetMapping("/executive")
     @PreAuthorize("hasAnyRole('EXECUTIVE', 'ADMIN', 'SUPER_ADMIN')")
-    public ResponseEntity<ApiResponse<List<ProjectDto>>> getExecutiveProjects(Authentication authentication) {
+    public ResponseEntity<ApiResponse<?>> getExecutiveProjects(Authentication authentication, ProjectPageRequest pageRequest) {
         try {
             String userName = authentication.getName();
+            if (pageRequest.isPaged()) {
+                PagedResponse<?> page = projectService.getExecutiveProjects(userName, pageRequest);
+                return ResponseEntity.ok(ApiResponse.<PagedResponse<?>>builder()
+                        .success(true)
+                        .message("Projects retrieved successfully")
+                        .data(page)
+                        .build());
+            }
             List<ProjectDto> projects = projectService.getExecutiveProjects(userName);
             return ResponseEntity.ok(ApiResponse.<List<ProjectDto>>builder()
                     .success(true)
                     .message("Projects retrieved successfully")
                     .data(projects)
                     .build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.<List<ProjectDto>>builder()
+                            .success(false)
+                            .message(e.getMessage())
+                            .build());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.<List<ProjectDto>>builder()
@@ -133,14 +201,28 @@ public class ProjectController {
     // Sales Coordinator - Get projects in SALES stage
     @GetMapping("/sales")
     @PreAuthorize("hasAnyRole('SALES_COORDINATOR', 'ADMIN', 'SUPER_ADMIN')")
-    public ResponseEntity<ApiResponse<List<ProjectDto>>> getSalesProjects() {
+    public ResponseEntity<ApiResponse<?>> getSalesProjects(ProjectPageRequest pageRequest) {
         try {
+            if (pageRequest.isPaged()) {
+                PagedResponse<?> page = projectService.getSalesProjects(pageRequest);
+                return ResponseEntity.ok(ApiResponse.<PagedResponse<?>>builder()
+                        .success(true)
+                        .message("Sales projects retrieved successfully")
+                        .data(page)
+                        .build());
+            }
             List<ProjectDto> projects = projectService.getSalesProjects();
             return ResponseEntity.ok(ApiResponse.<List<ProjectDto>>builder()
                     .success(true)
                     .message("Sales projects retrieved successfully")
                     .data(projects)
                     .build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.<List<ProjectDto>>builder()
+                            .success(false)
+                            .message(e.getMessage())
+                            .build());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.<List<ProjectDto>>builder()
@@ -156,6 +238,7 @@ public class ProjectController {
     public ResponseEntity<ApiResponse<ProjectDto>> updateSalesData(
             @PathVariable Long id,
             @RequestBody UpdateSalesDataRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             Authentication authentication) {
         try {
             String userName = authentication.getName();
@@ -164,18 +247,16 @@ public class ProjectController {
                     .findFirst()
                     .orElse("ROLE_SALES_COORDINATOR");
             
-            ProjectDto project = projectService.updateSalesData(id, request, userName, userRole);
-            return ResponseEntity.ok(ApiResponse.<ProjectDto>builder()
-                    .success(true)
-                    .message("Sales data updated successfully")
-                    .data(project)
-                    .build());
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+            ProjectDto project = projectService.updateSalesData(id, request, userName, userRole, parseIfMatch(ifMatch));
+            return ResponseEntity.ok()
+                    .eTag(String.valueOf(project.getVersion()))
                     .body(ApiResponse.<ProjectDto>builder()
-                            .success(false)
-                            .message(e.getMessage())
+                            .success(true)
+                            .message("Sales data updated successfully")
+                            .data(project)
                             .build());
+        } catch (Exception e) {
+            return failure(e);
         }
     }
 
@@ -199,25 +280,35 @@ public class ProjectController {
                     .data(project)
                     .build());
         } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(ApiResponse.<ProjectDto>builder()
-                            .success(false)
-                            .message(e.getMessage())
-                            .build());
+            return failure(e);
         }
     }
 
     // Accounts - Get projects in ACCOUNTS stage
     @GetMapping("/accounts")
     @PreAuthorize("hasAnyRole('ACCOUNTS', 'ADMIN', 'SUPER_ADMIN')")
-    public ResponseEntity<ApiResponse<List<ProjectDto>>> getAccountsProjects() {
+    public ResponseEntity<ApiResponse<?>> getAccountsProjects(ProjectPageRequest pageRequest) {
         try {
+            if (pageRequest.isPaged()) {
+                PagedResponse<?> page = projectService.getAccountsProjects(pageRequest);
+                return ResponseEntity.ok(ApiResponse.<PagedResponse<?>>builder()
+                        .success(true)
+                        .message("Accounts projects retrieved successfully")
+                        .data(page)
+                        .build());
+            }
             List<ProjectDto> projects = projectService.getAccountsProjects();
             return ResponseEntity.ok(ApiResponse.<List<ProjectDto>>builder()
                     .success(true)
                     .message("Accounts projects retrieved successfully")
                     .data(projects)
                     .build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.<List<ProjectDto>>builder()
+                            .success(false)
+                            .message(e.getMessage())
+                            .build());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.<List<ProjectDto>>builder()
@@ -233,6 +324,7 @@ public class ProjectController {
     public ResponseEntity<ApiResponse<ProjectDto>> updateAccountsData(
             @PathVariable Long id,
             @RequestBody UpdateAccountsDataRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             Authentication authentication) {
         try {
             String userName = authentication.getName();
@@ -241,32 +333,44 @@ public class ProjectController {
                     .findFirst()
                     .orElse("ROLE_ACCOUNTS");
             
-            ProjectDto project = projectService.updateAccountsData(id, request, userName, userRole);
-            return ResponseEntity.ok(ApiResponse.<ProjectDto>builder()
-                    .success(true)
-                    .message("Accounts data updated successfully")
-                    .data(project)
-                    .build());
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+            ProjectDto project = projectService.updateAccountsData(id, request, userName, userRole, parseIfMatch(ifMatch));
+            return ResponseEntity.ok()
+                    .eTag(String.valueOf(project.getVersion()))
                     .body(ApiResponse.<ProjectDto>builder()
-                            .success(false)
-                            .message(e.getMessage())
+                            .success(true)
+                            .message("Accounts data updated successfully")
+                            .data(project)
                             .build());
+        } catch (Exception e) {
+            return failure(e);
         }
     }
 
     // Installation - Get projects in INSTALLATION stage
     @GetMapping("/installation")
     @PreAuthorize("hasAnyRole('INSTALLATION', 'ADMIN', 'SUPER_ADMIN')")
-    public ResponseEntity<ApiResponse<List<ProjectDto>>> getInstallationProjects() {
+    public ResponseEntity<ApiResponse<?>> getInstallationProjects(ProjectPageRequest pageRequest) {
         try {
+            if (pageRequest.isPaged()) {
+                PagedResponse<?> page = projectService.getInstallationProjects(pageRequest);
+                return ResponseEntity.ok(ApiResponse.<PagedResponse<?>>builder()
+                        .success(true)
+                        .message("Installation projects retrieved successfully")
+                        .data(page)
+                        .build());
+            }
             List<ProjectDto> projects = projectService.getInstallationProjects();
             return ResponseEntity.ok(ApiResponse.<List<ProjectDto>>builder()
                     .success(true)
                     .message("Installation projects retrieved successfully")
                     .data(projects)
                     .build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.<List<ProjectDto>>builder()
+                            .success(false)
+                            .message(e.getMessage())
+                            .build());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.<List<ProjectDto>>builder()
@@ -282,6 +386,7 @@ public class ProjectController {
     public ResponseEntity<ApiResponse<ProjectDto>> updateInstallationData(
             @PathVariable Long id,
             @RequestBody UpdateInstallationDataRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             Authentication authentication) {
         try {
             String userName = authentication.getName();
@@ -290,32 +395,44 @@ public class ProjectController {
                     .findFirst()
                     .orElse("ROLE_INSTALLATION");
             
-            ProjectDto project = projectService.updateInstallationData(id, request, userName, userRole);
-            return ResponseEntity.ok(ApiResponse.<ProjectDto>builder()
-                    .success(true)
-                    .message("Installation data updated successfully")
-                    .data(project)
-                    .build());
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+            ProjectDto project = projectService.updateInstallationData(id, request, userName, userRole, parseIfMatch(ifMatch));
+            return ResponseEntity.ok()
+                    .eTag(String.valueOf(project.getVersion()))
                     .body(ApiResponse.<ProjectDto>builder()
-                            .success(false)
-                            .message(e.getMessage())
+                            .success(true)
+                            .message("Installation data updated successfully")
+                            .data(project)
                             .build());
+        } catch (Exception e) {
+            return failure(e);
         }
     }
 
     // Get completed projects (Archive view)
     @GetMapping("/completed")
     @PreAuthorize("hasAnyRole('EXECUTIVE', 'SALES_COORDINATOR', 'ACCOUNTS', 'INSTALLATION', 'ADMIN', 'SUPER_ADMIN')")
-    public ResponseEntity<ApiResponse<List<ProjectDto>>> getCompletedProjects() {
+    public ResponseEntity<ApiResponse<?>> getCompletedProjects(ProjectPageRequest pageRequest) {
         try {
+            if (pageRequest.isPaged()) {
+                PagedResponse<?> page = projectService.getCompletedProjects(pageRequest);
+                return ResponseEntity.ok(ApiResponse.<PagedResponse<?>>builder()
+                        .success(true)
+                        .message("Completed projects retrieved successfully")
+                        .data(page)
+                        .build());
+            }
             List<ProjectDto> projects = projectService.getCompletedProjects();
             return ResponseEntity.ok(ApiResponse.<List<ProjectDto>>builder()
                     .success(true)
                     .message("Completed projects retrieved successfully")
                     .data(projects)
                     .build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.<List<ProjectDto>>builder()
+                            .success(false)
+                            .message(e.getMessage())
+                            .build());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.<List<ProjectDto>>builder()
@@ -325,17 +442,87 @@ public class ProjectController {
         }
     }
 
+    // Typeahead for the create form: existing projects whose school, contact person or number starts with q
+    @GetMapping("/suggest")
+    @PreAuthorize("hasAnyRole('EXECUTIVE', 'SALES_COORDINATOR', 'ACCOUNTS', 'INSTALLATION', 'ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<ApiResponse<List<ProjectSuggestionDto>>> suggestProjects(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "" + ProjectTypeaheadIndex.DEFAULT_LIMIT) int limit) {
+        if (!typeaheadIndex.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(ApiResponse.<List<ProjectSuggestionDto>>builder()
+                            .success(false)
+                            .message("Suggestions are still loading")
+                            .build());
+        }
+        int boundedLimit = Math.max(1, Math.min(limit, ProjectTypeaheadIndex.MAX_LIMIT));
+        return ResponseEntity.ok(ApiResponse.<List<ProjectSuggestionDto>>builder()
+                .success(true)
+                .message("Suggestions retrieved successfully")
+                .data(typeaheadIndex.suggest(query, boundedLimit))
+                .build());
+    }
+
+    // Search projects by school, contact, place, district, project name or contact number (best matches first)
+    @GetMapping("/search")
+    @PreAuthorize("hasAnyRole('EXECUTIVE', 'SALES_COORDINATOR', 'ACCOUNTS', 'INSTALLATION', 'ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<ApiResponse<PagedResponse<ProjectSummaryDto>>> searchProjects(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        try {
+            PagedResponse<ProjectSummaryDto> results = projectService.searchProjects(query, page, size);
+            return ResponseEntity.ok(ApiResponse.<PagedResponse<ProjectSummaryDto>>builder()
+                    .success(true)
+                    .message("Projects retrieved successfully")
+                    .data(results)
+                    .build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.<PagedResponse<ProjectSummaryDto>>builder()
+                            .success(false)
+                            .message(e.getMessage())
+                            .build());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.<PagedResponse<ProjectSummaryDto>>builder()
+                            .success(false)
+                            .message(e.getMessage())
+                            .build());
+        }
+    }
+
+    // Reports/Finance - Stream every project as NDJSON (default) or CSV
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyRole('ACCOUNTS', 'ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportProjects(@RequestParam(defaultValue = ProjectExportService.FORMAT_NDJSON) String format) {
+        if (!ProjectExportService.isSupportedFormat(format)) {
+            byte[] message = ("Unsupported export format: " + format).getBytes(StandardCharsets.UTF_8);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .body(output -> output.write(message));
+        }
+        boolean csv = ProjectExportService.FORMAT_CSV.equals(format);
+        StreamingResponseBody body = output -> projectExportService.exportProjects(format, output);
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"projects." + format + "\"")
+                .body(body);
+    }
+
     // Get project by ID
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('EXECUTIVE', 'SALES_COORDINATOR', 'ACCOUNTS', 'INSTALLATION', 'ADMIN', 'SUPER_ADMIN')")
     public ResponseEntity<ApiResponse<ProjectDto>> getProjectById(@PathVariable Long id) {
         try {
             ProjectDto project = projectService.getProjectById(id);
-            return ResponseEntity.ok(ApiResponse.<ProjectDto>builder()
-                    .success(true)
-                    .message("Project retrieved successfully")
-                    .data(project)
-                    .build());
+            return ResponseEntity.ok()
+                    .eTag(String.valueOf(project.getVersion()))
+                    .body(ApiResponse.<ProjectDto>builder()
+                            .success(true)
+                            .message("Project retrieved successfully")
+                            .data(project)
+                            .build());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(ApiResponse.<ProjectDto>builder()
@@ -348,14 +535,28 @@ public class ProjectController {
     // Admin/Super Admin - Get all projects
     @GetMapping("/all")
     @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
-    public ResponseEntity<ApiResponse<List<ProjectDto>>> getAllProjects() {
+    public ResponseEntity<ApiResponse<?>> getAllProjects(ProjectPageRequest pageRequest) {
         try {
+            if (pageRequest.isPaged()) {
+                PagedResponse<?> page = projectService.getAllProjects(pageRequest);
+                return ResponseEntity.ok(ApiResponse.<PagedResponse<?>>builder()
+                        .success(true)
+                        .message("All projects retrieved successfully")
+                        .data(page)
+                        .build());
+            }
             List<ProjectDto> projects = projectService.getAllProjects();
             return ResponseEntity.ok(ApiResponse.<List<ProjectDto>>builder()
                     .success(true)
                     .message("All projects retrieved successfully")
                     .data(projects)
                     .build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.<List<ProjectDto>>builder()
+                            .success(false)
+                            .message(e.getMessage())
+                            .build());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.<List<ProjectDto>>builder()
@@ -368,14 +569,28 @@ public class ProjectController {
     // Get projects by stage
     @GetMapping("/stage/{stage}")
     @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
-    public ResponseEntity<ApiResponse<List<ProjectDto>>> getProjectsByStage(@PathVariable String stage) {
+    public ResponseEntity<ApiResponse<?>> getProjectsByStage(@PathVariable String stage, ProjectPageRequest pageRequest) {
         try {
+            if (pageRequest.isPaged()) {
+                PagedResponse<?> page = projectService.getProjectsByStage(stage, pageRequest);
+                return ResponseEntity.ok(ApiResponse.<PagedResponse<?>>builder()
+                        .success(true)
+                        .message("Projects retrieved successfully")
+                        .data(page)
+                        .build());
+            }
             List<ProjectDto> projects = projectService.getProjectsByStage(stage);
             return ResponseEntity.ok(ApiResponse.<List<ProjectDto>>builder()
                     .success(true)
                     .message("Projects retrieved successfully")
                     .data(projects)
                     .build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.<List<ProjectDto>>builder()
+                            .success(false)
+                            .message(e.getMessage())
+                            .build());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.<List<ProjectDto>>builder()
@@ -411,4 +626,58 @@ public class ProjectController {
                             .build());
         }
     }
+
+    /**
+     * Error response for a failed project write: 412 for a stale If-Match, 409 for a concurrent update
+     * or a duplicate contact number, 400 otherwise
+     */
+    private static ResponseEntity<ApiResponse<ProjectDto>> failure(Exception e) {
+        HttpStatus status = HttpStatus.BAD_REQUEST;
+        String message = e.getMessage();
+        if (e instanceof ProjectVersionMismatchException) {
+            status = HttpStatus.PRECONDITION_FAILED;
+        } else if (e instanceof OptimisticLockingFailureException) {
+            status = HttpStatus.CONFLICT;
+            message = CONCURRENT_UPDATE_MESSAGE;
+        } else if (e instanceof DuplicateContactNumberException) {
+            status = HttpStatus.CONFLICT;
+        }
+        return ResponseEntity.status(status)
+                .body(ApiResponse.<ProjectDto>builder()
+                        .success(false)
+                        .message(message)
+                        .build());
+    }
+
+    /**
+     * Versions listed in an If-Match header, e.g. "3" or "3", "4"; null when absent or *, i.e. no precondition.
+     * If-Match uses strong comparison (RFC 9110 13.1.1), so weak tags (W/"3") and tags that are not
+     * a version never match: a header with only such tags yields an empty list and fails the precondition.
+     */
+    private static List<Long> parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || "*".equals(ifMatch.trim())) {
+            return null;
+        }
+        List<Long> versions = new ArrayList<>();
+        for (String element : ifMatch.split(",")) {
+            String tag = element.trim();
+            if (tag.isEmpty()) {
+                continue;
+            }
+            boolean weak = tag.startsWith("W/");
+            String opaque = weak ? tag.substring(2) : tag;
+            if (opaque.length() < 2 || !opaque.startsWith("\"") || !opaque.endsWith("\"")) {
+                throw new IllegalArgumentException("Invalid If-Match header: " + ifMatch);
+            }
+            if (weak) {
+                continue;
+            }
+            try {
+                versions.add(Long.parseLong(opaque.substring(1, opaque.length() - 1)));
+            } catch (NumberFormatException e) {
+                // A well-formed tag we never issued
+            }
+        }
+        return versions;
+    }
 }
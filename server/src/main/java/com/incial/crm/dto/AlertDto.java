@@ -1,5 +1,6 @@
 package com.incial.crm.dto;
 
+import com.incial.crm.entity.ProjectAlert;
 import com.incial.crm.entity.ProjectAlert.AlertSeverity;
 import com.incial.crm.entity.ProjectAlert.AlertType;
 import lombok.AllArgsConstructor;
@@ -25,4 +26,24 @@ public class AlertDto {
     private String dismissedBy;
     private Boolean isActive;
     private Integer daysOverdue;
+    
+    /**
+     * Convert entity to DTO. Reads the project's school, so the project must be loaded
+     * (or the call made inside the transaction that loaded the alert).
+     */
+    public static AlertDto fromEntity(ProjectAlert alert) {
+        return AlertDto.builder()
+            .id(alert.getId())
+            .projectId(alert.getProject().getId())
+            .projectName(alert.getProject().getSchool())
+            .alertType(alert.getAlertType())
+            .severity(alert.getSeverity())
+            .message(alert.getMessage())
+            .createdAt(alert.getCreatedAt())
+            .dismissedAt(alert.getDismissedAt())
+            .dismissedBy(alert.getDismissedBy())
+            .isActive(alert.getIsActive())
+            .daysOverdue(alert.getDaysOverdue())
+            .build();
+    }
 }
@@ -0,0 +1,24 @@
+package com.incial.crm.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One alert change pushed to /api/v1/alerts/stream subscribers
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlertEventDto {
+
+    public enum EventType {
+        CREATED,
+        DISMISSED
+    }
+
+    private EventType type;
+    private AlertDto alert;
+}
@@ -1,11 +1,13 @@
 package com.incial.crm.dto;
 
-import com.incial.crm.entity.ProjectAlert.AlertSeverity;
+import com.incial.crm.entity.ProjectAlert.AlertType;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Map;
+
 @Data
 @Builder
 @NoArgsConstructor
@@ -15,4 +17,5 @@ public class AlertSummaryDto {
     private Long criticalAlerts;
     private Long warningAlerts;
     private Long infoAlerts;
+    private Map<AlertType, Long> alertsByType; // every type, 0 when none are active
 }
@@ -0,0 +1,26 @@
+package com.incial.crm.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PagedResponse<T> {
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+
+    // Offset mode (page/size/sort)
+    private Integer page;
+    private Long totalElements;
+    private Integer totalPages;
+
+    // Cursor mode - pass back as ?cursor= to fetch the next slice
+    private String nextCursor;
+}
@@ -76,4 +76,7 @@ public class ProjectDto {
     private String lastUpdatedBy;
     private LocalDateTime lastUpdatedAt;
     private Boolean isLocked;
+
+    // Send back as If-Match on updates to detect concurrent edits
+    private Long version;
 }
\ No newline at end of file
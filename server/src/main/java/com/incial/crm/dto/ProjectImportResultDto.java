@@ -0,0 +1,30 @@
+package com.incial.crm.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProjectImportResultDto {
+    private long totalRows;
+    private long imported;
+    private long failed;
+    private List<RowError> errors;
+    private boolean errorsTruncated; // true when more rows failed than are listed in errors
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long row; // 1-based record number in the upload (CSV header and blank lines are not counted)
+        private String contactNumber;
+        private String message;
+    }
+}
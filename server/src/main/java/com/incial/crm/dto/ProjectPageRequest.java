@@ -0,0 +1,37 @@
+package com.incial.crm.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Optional paging parameters for the project list endpoints.
+ * Offset mode: ?page=0&size=50&sort=school,asc
+ * Cursor mode: ?cursor=&size=50 for the first slice, then ?cursor=<nextCursor> (ordered by lastUpdatedAt, id descending)
+ * Rows are ProjectSummaryDto unless view=full is passed.
+ * When none of them is supplied the endpoints keep returning the full list.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProjectPageRequest {
+    private Integer page;
+    private Integer size;
+    private String sort;
+    private String cursor;
+    private String view;
+
+    public boolean isPaged() {
+        return page != null || size != null || sort != null || cursor != null || view != null;
+    }
+
+    public boolean isCursorMode() {
+        return cursor != null;
+    }
+
+    public boolean isFullView() {
+        return "full".equalsIgnoreCase(view);
+    }
+}
@@ -0,0 +1,20 @@
+package com.incial.crm.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProjectSuggestionDto {
+    private Long id;
+    private String school;
+    private String contactPerson;
+    private String contactNumber;
+    private String place;
+    private String district;
+    private String matchedField; // school, contactPerson or contactNumber
+}
@@ -0,0 +1,99 @@
+package com.incial.crm.dto;
+
+import com.incial.crm.enums.ExecutiveProjectStatus;
+import com.incial.crm.repository.ProjectSummaryView;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * List-row representation of a project.
+ * Remarks, delivery notes and payment history are only part of the full ProjectDto (GET /api/v1/projects/{id}).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProjectSummaryDto {
+    private Long id;
+
+    // Base Information
+    private String school;
+    private String contactPerson;
+    private String contactNumber;
+    private String place;
+    private String district;
+    private String region;
+    private String projectName;
+    private String parentCompany;
+    private LocalDateTime createdDate;
+    private String createdBy;
+
+    // Stage Tracking
+    private String currentStage;
+    private String previousStage;
+    private LocalDateTime stageChangeTimestamp;
+    private String currentOwnerRole;
+    private ExecutiveProjectStatus executiveViewStatus;
+
+    // Sales / Accounts / Installation
+    private BigDecimal projectValue;
+    private BigDecimal invoiceAmount;
+    private LocalDate expectedDeliveryDate;
+    private String paymentStatus;
+    private BigDecimal amountReceived;
+    private BigDecimal pendingAmount;
+    private LocalDate paymentDate;
+    private String installationStatus;
+    private LocalDate completionDate;
+
+    // Audit
+    private String lastUpdatedBy;
+    private LocalDateTime lastUpdatedAt;
+    private Boolean isLocked;
+
+    /**
+     * Convert projection to DTO
+     */
+    public static ProjectSummaryDto fromView(ProjectSummaryView view) {
+        if (view == null) {
+            return null;
+        }
+
+        return ProjectSummaryDto.builder()
+                .id(view.getId())
+                .school(view.getSchool())
+                .contactPerson(view.getContactPerson())
+                .contactNumber(view.getContactNumber())
+                .place(view.getPlace())
+                .district(view.getDistrict())
+                .region(view.getRegion())
+                .projectName(view.getProjectName())
+                .parentCompany(view.getParentCompany())
+                .createdDate(view.getCreatedDate())
+                .createdBy(view.getCreatedBy())
+                .currentStage(view.getCurrentStage())
+                .previousStage(view.getPreviousStage())
+                .stageChangeTimestamp(view.getStageChangeTimestamp())
+                .currentOwnerRole(view.getCurrentOwnerRole())
+                .executiveViewStatus(ExecutiveProjectStatus.fromStage(view.getCurrentStage()))
+                .projectValue(view.getProjectValue())
+                .invoiceAmount(view.getInvoiceAmount())
+                .expectedDeliveryDate(view.getExpectedDeliveryDate())
+                .paymentStatus(view.getPaymentStatus())
+                .amountReceived(view.getAmountReceived())
+                .pendingAmount(view.getPendingAmount())
+                .paymentDate(view.getPaymentDate())
+                .installationStatus(view.getInstallationStatus())
+                .completionDate(view.getCompletionDate())
+                .lastUpdatedBy(view.getLastUpdatedBy())
+                .lastUpdatedAt(view.getLastUpdatedAt())
+                .isLocked(view.getIsLocked())
+                .build();
+    }
+}
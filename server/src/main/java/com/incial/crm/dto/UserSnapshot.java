@@ -0,0 +1,42 @@
+package com.incial.crm.dto;
+
+import com.incial.crm.entity.User;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable copy of a user row, safe to share between threads (see ReferenceDataCache)
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+@ToString(exclude = "passwordHash")
+public class UserSnapshot {
+    private final Long id;
+    private final String name;
+    private final String email;
+    private final String passwordHash;
+    private final String role;
+    private final String googleId;
+    private final String avatarUrl;
+    private final Long clientCrmId;
+    private final LocalDateTime createdAt;
+
+    public static UserSnapshot of(User user) {
+        return UserSnapshot.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .email(user.getEmail())
+                .passwordHash(user.getPasswordHash())
+                .role(user.getRole())
+                .googleId(user.getGoogleId())
+                .avatarUrl(user.getAvatarUrl())
+                .clientCrmId(user.getClientCrmId())
+                .createdAt(user.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,39 @@
+package com.incial.crm.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * When a project that entered a stage becomes due for a delay alert rule (the delay queue behind
+ * event-driven alerting). Rows are replaced on every stage transition and removed once checked.
+ * project_id is deliberately not a foreign key: a deadline left behind by a deleted project is simply dropped when due.
+ */
+@Entity
+@Table(name = "alert_deadlines", indexes = {
+        @Index(name = "idx_alert_deadlines_due_at", columnList = "due_at"),
+        @Index(name = "idx_alert_deadlines_project", columnList = "project_id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlertDeadline {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "alert_deadline_seq_gen")
+    @SequenceGenerator(name = "alert_deadline_seq_gen", sequenceName = "alert_deadlines_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "project_id", nullable = false)
+    private Long projectId;
+
+    @Column(name = "rule_name", nullable = false, length = 100)
+    private String ruleName;
+
+    @Column(name = "due_at", nullable = false)
+    private LocalDateTime dueAt;
+}
@@ -19,7 +19,8 @@ import java.time.LocalDateTime;
 public class PaymentTransaction {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_transaction_seq_gen")
+    @SequenceGenerator(name = "payment_transaction_seq_gen", sequenceName = "payment_transactions_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "project_id", nullable = false)
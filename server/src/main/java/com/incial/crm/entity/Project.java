@@ -4,21 +4,32 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Objects;
 
 @Entity
-@Table(name = "projects")
+@Table(name = "projects", indexes = {
+        // Delay alert scans and "completed this month" analytics: stage + time entered
+        @Index(name = "idx_projects_stage_changed", columnList = "current_stage, stage_change_timestamp"),
+        @Index(name = "idx_projects_owner_role", columnList = "current_owner_role"),
+        @Index(name = "idx_projects_created_date", columnList = "created_date"),
+        // One project per phone number, whatever its formatting (see normalizeContactNumber)
+        @Index(name = "ux_projects_contact_number_normalized", columnList = "contact_number_normalized", unique = true)
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Project {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "project_seq_gen")
+    @SequenceGenerator(name = "project_seq_gen", sequenceName = "projects_seq", allocationSize = 50)
     private Long id;
 
     // Base Information (Created by Executive)
@@ -31,6 +42,10 @@ public class Project {
     @Column(name = "contact_number", length = 50)
     private String contactNumber;
 
+    // Maintained from contactNumber on every insert/update
+    @Column(name = "contact_number_normalized", length = 20)
+    private String contactNumberNormalized;
+
     @Column(length = 255)
     private String place;
 
@@ -145,6 +160,24 @@ public class Project {
     @Column(name = "is_locked", nullable = false)
     private Boolean isLocked = false;
 
+    // Optimistic lock: bumped on every update, exposed to clients as the ETag
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    // Contact number as last loaded or written, so the normalized value is only recomputed when the number changes
+    @Transient
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private String persistedContactNumber;
+
+    @PostLoad
+    @PostPersist
+    @PostUpdate
+    protected void rememberContactNumber() {
+        persistedContactNumber = contactNumber;
+    }
+
     @PrePersist
     protected void onCreate() {
         createdDate = LocalDateTime.now();
@@ -158,10 +191,34 @@ public class Project {
         if (isLocked == null) {
             isLocked = false;
         }
+        contactNumberNormalized = normalizeContactNumber(contactNumber);
     }
 
     @PreUpdate
     protected void onUpdate() {
         lastUpdatedAt = LocalDateTime.now();
+        // Legacy duplicates were left with a null normalized number (004_contact_number_normalized.sql);
+        // recomputing it on unrelated updates would make every write to them hit the unique index
+        if (!Objects.equals(contactNumber, persistedContactNumber)) {
+            contactNumberNormalized = normalizeContactNumber(contactNumber);
+        }
+    }
+
+    /**
+     * Digits only, keeping the last 10 so a country code makes no difference; null when there are no digits.
+     * "+91 98765-43210" and "9876543210" normalize to the same value.
+     * This deliberately treats any two numbers that share their last 10 digits as the same number
+     * (e.g. identical local numbers under different country codes, or a number with a trailing extension),
+     * so such a pair counts as a duplicate even though the raw strings differ.
+     */
+    public static String normalizeContactNumber(String contactNumber) {
+        if (contactNumber == null) {
+            return null;
+        }
+        String digits = contactNumber.replaceAll("\\D", "");
+        if (digits.isEmpty()) {
+            return null;
+        }
+        return digits.length() > 10 ? digits.substring(digits.length() - 10) : digits;
     }
 }
@@ -16,7 +16,8 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class ProjectActivityLog {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "activity_log_seq_gen")
+    @SequenceGenerator(name = "activity_log_seq_gen", sequenceName = "project_activity_logs_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "project_id", nullable = false)
@@ -51,6 +52,8 @@ public class ProjectActivityLog {
 
     @PrePersist
     protected void onCreate() {
-        timestamp = LocalDateTime.now();
+        if (timestamp == null) {
+            timestamp = LocalDateTime.now();
+        }
     }
 }
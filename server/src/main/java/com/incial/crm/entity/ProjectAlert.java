@@ -4,8 +4,15 @@ import jakarta.persistence.*;
 import lombok.*;
 import java.time.LocalDateTime;
 
+/**
+ * At most one active alert per project and type: partial unique index ux_project_alerts_active_type
+ * (migration 011, not expressible with @Index)
+ */
 @Entity
-@Table(name = "project_alerts")
+@Table(name = "project_alerts", indexes = {
+        // Existing-alert anti-join in delay alert generation
+        @Index(name = "idx_project_alerts_project_type", columnList = "project_id, alert_type, is_active")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -14,7 +21,8 @@ import java.time.LocalDateTime;
 public class ProjectAlert {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "project_alert_seq_gen")
+    @SequenceGenerator(name = "project_alert_seq_gen", sequenceName = "project_alerts_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
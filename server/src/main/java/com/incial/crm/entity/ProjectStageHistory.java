@@ -16,7 +16,8 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class ProjectStageHistory {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stage_history_seq_gen")
+    @SequenceGenerator(name = "stage_history_seq_gen", sequenceName = "project_stage_history_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "project_id", nullable = false)
@@ -46,7 +47,9 @@ public class ProjectStageHistory {
 
     @PrePersist
     protected void onCreate() {
-        timestamp = LocalDateTime.now();
+        if (timestamp == null) {
+            timestamp = LocalDateTime.now();
+        }
         if (isSystemTriggered == null) {
             isSystemTriggered = false;
         }
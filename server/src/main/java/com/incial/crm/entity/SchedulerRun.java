@@ -0,0 +1,53 @@
+package com.incial.crm.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One execution of a lease-guarded scheduled job
+ */
+@Entity
+@Table(name = "scheduler_runs", indexes = {
+        @Index(name = "idx_scheduler_runs_job_started", columnList = "job_name, started_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SchedulerRun {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_name", nullable = false, length = 100)
+    private String jobName;
+
+    @Column(name = "node_id", nullable = false, length = 255)
+    private String nodeId;
+
+    @Column(name = "trigger_type", nullable = false, length = 20)
+    private String triggerType; // SCHEDULED, MANUAL
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "duration_ms")
+    private Long durationMs;
+
+    @Column(nullable = false, length = 20)
+    private String status; // SUCCEEDED, FAILED
+
+    @Column(name = "rows_affected")
+    private Integer rowsAffected;
+
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+}
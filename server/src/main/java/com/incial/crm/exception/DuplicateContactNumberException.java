@@ -0,0 +1,32 @@
+package com.incial.crm.exception;
+
+import org.hibernate.exception.ConstraintViolationException;
+
+import java.util.Locale;
+
+/**
+ * Thrown when a project insert or update hits the unique index on the normalized contact number.
+ */
+public class DuplicateContactNumberException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String CONTACT_NUMBER_CONSTRAINT = "ux_projects_contact_number_normalized";
+
+    public DuplicateContactNumberException(String message) {
+        super(message);
+    }
+
+    /**
+     * Whether the failure was caused by ux_projects_contact_number_normalized
+     */
+    public static boolean isContactNumberConflict(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+                    && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(CONTACT_NUMBER_CONSTRAINT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
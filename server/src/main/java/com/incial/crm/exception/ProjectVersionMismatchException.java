@@ -0,0 +1,13 @@
+package com.incial.crm.exception;
+
+/**
+ * Thrown when an update carries an If-Match version that no longer matches the stored project.
+ */
+public class ProjectVersionMismatchException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ProjectVersionMismatchException(String message) {
+        super(message);
+    }
+}
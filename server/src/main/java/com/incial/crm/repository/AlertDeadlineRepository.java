@@ -0,0 +1,28 @@
+package com.incial.crm.repository;
+
+import com.incial.crm.entity.AlertDeadline;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface AlertDeadlineRepository extends JpaRepository<AlertDeadline, Long> {
+
+    /**
+     * Earliest deadlines that have passed (served by idx_alert_deadlines_due_at)
+     */
+    @Query("SELECT d FROM AlertDeadline d WHERE d.dueAt <= :now ORDER BY d.dueAt, d.id")
+    List<AlertDeadline> findDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    boolean existsByDueAtLessThanEqual(LocalDateTime now);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM AlertDeadline d WHERE d.projectId = :projectId")
+    int deleteByProjectId(@Param("projectId") Long projectId);
+}
@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -17,6 +18,11 @@ public interface PaymentTransactionRepository extends JpaRepository<PaymentTrans
      */
     List<PaymentTransaction> findByProjectIdOrderByPaymentDateAsc(Long projectId);
     
+    /**
+     * Find all payment transactions for a batch of projects, ordered by payment date (oldest first)
+     */
+    List<PaymentTransaction> findByProjectIdInOrderByPaymentDateAsc(Collection<Long> projectIds);
+    
     /**
      * Calculate sum of all payments for a project
      */
@@ -1,28 +1,77 @@
 package com.incial.crm.repository;
 
+import com.incial.crm.dto.AlertDto;
 import com.incial.crm.entity.ProjectAlert;
+import com.incial.crm.entity.ProjectAlert.AlertSeverity;
 import com.incial.crm.entity.ProjectAlert.AlertType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ProjectAlertRepository extends JpaRepository<ProjectAlert, Long> {
     
-    List<ProjectAlert> findByIsActiveTrueOrderByCreatedAtDesc();
+    List<ProjectAlert> findByAlertTypeAndIsActiveTrue(AlertType alertType);
     
-    List<ProjectAlert> findByProjectIdAndIsActiveTrue(Long projectId);
+    // Alert rows with the project's school joined in, so listing never touches the lazy project association
+    String ALERT_DTO_SELECT = "SELECT new com.incial.crm.dto.AlertDto(a.id, p.id, p.school, a.alertType, a.severity, " +
+            "a.message, a.createdAt, a.dismissedAt, a.dismissedBy, a.isActive, a.daysOverdue) " +
+            "FROM ProjectAlert a JOIN a.project p ";
     
-    List<ProjectAlert> findByAlertTypeAndIsActiveTrue(AlertType alertType);
+    // Optional filters: a null parameter matches every value
+    String ACTIVE_FILTERED = "WHERE a.isActive = true " +
+            "AND (:severity IS NULL OR a.severity = :severity) " +
+            "AND (:alertType IS NULL OR a.alertType = :alertType) ";
+    
+    @Query(ALERT_DTO_SELECT + ACTIVE_FILTERED + "ORDER BY a.createdAt DESC, a.id DESC")
+    List<AlertDto> findActiveAlertDtos(@Param("severity") AlertSeverity severity,
+                                       @Param("alertType") AlertType alertType);
+    
+    @Query(value = ALERT_DTO_SELECT + ACTIVE_FILTERED + "ORDER BY a.createdAt DESC, a.id DESC",
+           countQuery = "SELECT COUNT(a) FROM ProjectAlert a " + ACTIVE_FILTERED)
+    Page<AlertDto> findActiveAlertDtos(@Param("severity") AlertSeverity severity,
+                                       @Param("alertType") AlertType alertType,
+                                       Pageable pageable);
+    
+    @Query(ALERT_DTO_SELECT + "WHERE p.id = :projectId AND a.isActive = true ORDER BY a.createdAt DESC, a.id DESC")
+    List<AlertDto> findActiveAlertDtosByProjectId(@Param("projectId") Long projectId);
+    
+    interface AlertCount {
+        AlertSeverity getSeverity();
+        AlertType getAlertType();
+        Long getCount();
+    }
+    
+    /**
+     * Active alert counts per severity and type, the whole alert summary in one statement
+     * (served by the partial index in db/migration/007_alert_summary_index.sql)
+     */
+    @Query("SELECT a.severity AS severity, a.alertType AS alertType, COUNT(a) AS count FROM ProjectAlert a " +
+           "WHERE a.isActive = true GROUP BY a.severity, a.alertType")
+    List<AlertCount> countActiveGroupedBySeverityAndType();
+    
+    interface AlertKey {
+        Long getProjectId();
+        AlertType getAlertType();
+    }
     
-    @Query("SELECT COUNT(a) FROM ProjectAlert a WHERE a.isActive = true AND a.severity = :severity")
-    Long countActiveBySeverity(@Param("severity") ProjectAlert.AlertSeverity severity);
+    /**
+     * Which of the given alert types are already active for each project (duplicate check in rule evaluation)
+     */
+    @Query("SELECT a.project.id AS projectId, a.alertType AS alertType FROM ProjectAlert a " +
+           "WHERE a.project.id IN :projectIds AND a.alertType IN :alertTypes AND a.isActive = true")
+    List<AlertKey> findActiveAlertKeys(@Param("projectIds") Collection<Long> projectIds,
+                                       @Param("alertTypes") Collection<AlertType> alertTypes);
     
-    @Query("SELECT COUNT(a) FROM ProjectAlert a WHERE a.isActive = true")
-    Long countActiveAlerts();
+    @Query("SELECT a FROM ProjectAlert a WHERE a.project.id = :projectId AND a.alertType IN :alertTypes AND a.isActive = true")
+    List<ProjectAlert> findActiveAlertsByProjectAndTypes(@Param("projectId") Long projectId,
+                                                         @Param("alertTypes") Collection<AlertType> alertTypes);
     
     @Query("SELECT a FROM ProjectAlert a WHERE a.project.id = :projectId AND a.alertType = :alertType AND a.isActive = true")
     List<ProjectAlert> findActiveAlertsByProjectAndType(@Param("projectId") Long projectId, @Param("alertType") AlertType alertType);
@@ -0,0 +1,54 @@
+package com.incial.crm.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Scalar row streamed by the project export: every Project column plus the sum of its payment
+ * transactions. Rows are not managed entities, so the persistence context stays empty however
+ * many rows are read.
+ */
+public interface ProjectExportRow {
+    Long getId();
+    String getSchool();
+    String getContactPerson();
+    String getContactNumber();
+    String getPlace();
+    String getDistrict();
+    String getRegion();
+    String getProjectName();
+    String getParentCompany();
+    String getExecutiveRemarks();
+    LocalDate getLastContact();
+    LocalDate getNextContact();
+    LocalDateTime getCreatedDate();
+    String getCreatedBy();
+    String getCurrentStage();
+    String getPreviousStage();
+    LocalDateTime getStageChangeTimestamp();
+    String getStageChangedBy();
+    String getCurrentOwnerRole();
+    BigDecimal getProjectValue();
+    BigDecimal getInvoiceAmount();
+    String getPendingDelivery();
+    String getQuotationRemarks();
+    LocalDate getExpectedDeliveryDate();
+    String getSalesRemarks();
+    LocalDateTime getSalesUpdatedTimestamp();
+    String getPaymentStatus();
+    BigDecimal getAmountReceived();
+    BigDecimal getPendingAmount();
+    LocalDate getPaymentDate();
+    String getPaymentRemarks();
+    String getPaymentProofUrl();
+    LocalDateTime getAccountsUpdatedTimestamp();
+    String getInstallationStatus();
+    String getInstallationRemarks();
+    LocalDate getCompletionDate();
+    LocalDateTime getInstallationUpdatedTimestamp();
+    String getLastUpdatedBy();
+    LocalDateTime getLastUpdatedAt();
+    Boolean getIsLocked();
+    BigDecimal getTotalReceived();
+}
@@ -1,13 +1,27 @@
 package com.incial.crm.repository;
 
 import com.incial.crm.entity.Project;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProjectRepository extends JpaRepository<Project, Long> {
@@ -27,19 +41,175 @@ public interface ProjectRepository extends JpaRepository<Project, Long> {
     @Query("SELECT p FROM Project p WHERE p.currentStage IN :stages")
     List<Project> findByStages(@Param("stages") List<String> stages);
     
+    // Paged variants of the list queries (offset paging).
+    // type is either Project or ProjectSummaryView; the projection only selects the list columns
+    <T> Page<T> findAllBy(Pageable pageable, Class<T> type);
+    
+    <T> Page<T> findByCurrentStageIn(Collection<String> stages, Pageable pageable, Class<T> type);
+    
+    // Keyset scrolling variants (cursor paging)
+    <T> Window<T> findBy(ScrollPosition position, Sort sort, Limit limit, Class<T> type);
+    
+    <T> Window<T> findByCurrentStageIn(Collection<String> stages, ScrollPosition position, Sort sort, Limit limit, Class<T> type);
+    
     @Query("SELECT p FROM Project p WHERE p.currentStage = :stage AND p.district = :district")
     List<Project> findByStageAndDistrict(@Param("stage") String stage, @Param("district") String district);
     
     @Query("SELECT p FROM Project p WHERE p.currentStage = :stage AND p.region = :region")
     List<Project> findByStageAndRegion(@Param("stage") String stage, @Param("region") String region);
     
-    @Query("SELECT p FROM Project p WHERE p.contactNumber = :contactNumber")
-    Optional<Project> findByContactNumber(@Param("contactNumber") String contactNumber);
+    @Query("SELECT p FROM Project p WHERE p.contactNumberNormalized = :normalized")
+    Optional<Project> findByContactNumberNormalized(@Param("normalized") String normalized);
+
+    // Full export: one pass over projects, read with a server-side cursor
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT p.id AS id, p.school AS school, p.contactPerson AS contactPerson, p.contactNumber AS contactNumber, " +
+           "p.place AS place, p.district AS district, p.region AS region, p.projectName AS projectName, " +
+           "p.parentCompany AS parentCompany, p.executiveRemarks AS executiveRemarks, p.lastContact AS lastContact, " +
+           "p.nextContact AS nextContact, p.createdDate AS createdDate, p.createdBy AS createdBy, " +
+           "p.currentStage AS currentStage, p.previousStage AS previousStage, p.stageChangeTimestamp AS stageChangeTimestamp, " +
+           "p.stageChangedBy AS stageChangedBy, p.currentOwnerRole AS currentOwnerRole, p.projectValue AS projectValue, " +
+           "p.invoiceAmount AS invoiceAmount, p.pendingDelivery AS pendingDelivery, p.quotationRemarks AS quotationRemarks, " +
+           "p.expectedDeliveryDate AS expectedDeliveryDate, p.salesRemarks AS salesRemarks, p.salesUpdatedTimestamp AS salesUpdatedTimestamp, " +
+           "p.paymentStatus AS paymentStatus, p.amountReceived AS amountReceived, p.pendingAmount AS pendingAmount, " +
+           "p.paymentDate AS paymentDate, p.paymentRemarks AS paymentRemarks, p.paymentProofUrl AS paymentProofUrl, " +
+           "p.accountsUpdatedTimestamp AS accountsUpdatedTimestamp, p.installationStatus AS installationStatus, " +
+           "p.installationRemarks AS installationRemarks, p.completionDate AS completionDate, p.installationUpdatedTimestamp AS installationUpdatedTimestamp, " +
+           "p.lastUpdatedBy AS lastUpdatedBy, p.lastUpdatedAt AS lastUpdatedAt, p.isLocked AS isLocked, " +
+           "COALESCE(p.amountReceived, 0) AS totalReceived " +
+           "FROM Project p ORDER BY p.id")
+    Stream<ProjectExportRow> streamForExport();
+
+    // Bulk duplicate check: which of these normalized numbers are already taken (one unique-index probe each)
+    @Query("SELECT p.contactNumberNormalized FROM Project p WHERE p.contactNumberNormalized IN :normalized")
+    List<String> findExistingNormalizedContactNumbers(@Param("normalized") Collection<String> normalized);
     
-    @Query("SELECT p FROM Project p WHERE LOWER(p.school) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
-           "OR LOWER(p.contactPerson) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    List<Project> searchBySchoolOrContact(@Param("searchTerm") String searchTerm);
+    /**
+     * Lower-cased search text of a project. Must stay identical to the expression of
+     * idx_projects_search_trgm (db/migration/003_project_search.sql) for the index to be used.
+     */
+    String SEARCH_DOCUMENT = "lower(coalesce(p.school, '') || ' ' || coalesce(p.contact_person, '') || ' ' || " +
+            "coalesce(p.place, '') || ' ' || coalesce(p.district, '') || ' ' || " +
+            "coalesce(p.project_name, '') || ' ' || coalesce(p.contact_number, ''))";
+
+    // Same columns for the portable fallback query
+    String SEARCH_LIKE_CONDITION = "(LOWER(p.school) LIKE :pattern ESCAPE '\\' " +
+            "OR LOWER(p.contactPerson) LIKE :pattern ESCAPE '\\' " +
+            "OR LOWER(p.place) LIKE :pattern ESCAPE '\\' " +
+            "OR LOWER(p.district) LIKE :pattern ESCAPE '\\' " +
+            "OR LOWER(p.projectName) LIKE :pattern ESCAPE '\\' " +
+            "OR p.contactNumber LIKE :pattern ESCAPE '\\') ";
+
+    // PostgreSQL search: substring match served by the pg_trgm GIN index, ranked by word similarity
+    @Query(value = "SELECT p.id FROM projects p WHERE " + SEARCH_DOCUMENT + " LIKE :pattern " +
+                   "ORDER BY word_similarity(:term, " + SEARCH_DOCUMENT + ") DESC, p.id",
+           nativeQuery = true)
+    List<Long> searchIdsByTrigram(@Param("term") String term, @Param("pattern") String pattern, Pageable pageable);
+
+    @Query(value = "SELECT COUNT(*) FROM projects p WHERE " + SEARCH_DOCUMENT + " LIKE :pattern", nativeQuery = true)
+    long countSearchByTrigram(@Param("pattern") String pattern);
+
+    // Portable fallback (H2, or PostgreSQL without pg_trgm): school prefix matches rank first
+    @Query("SELECT p.id FROM Project p WHERE " + SEARCH_LIKE_CONDITION +
+           "ORDER BY CASE WHEN LOWER(p.school) LIKE :prefix ESCAPE '\\' THEN 0 " +
+           "WHEN LOWER(p.school) LIKE :pattern ESCAPE '\\' THEN 1 ELSE 2 END, p.school, p.id")
+    List<Long> searchIdsByLike(@Param("pattern") String pattern, @Param("prefix") String prefix, Pageable pageable);
+
+    @Query("SELECT COUNT(p) FROM Project p WHERE " + SEARCH_LIKE_CONDITION)
+    long countSearchByLike(@Param("pattern") String pattern);
+
+    <T> List<T> findByIdIn(Collection<Long> ids, Class<T> type);
+
+    <T> List<T> findAllBy(Class<T> type);
+
+    @Query(value = "SELECT COUNT(*) FROM pg_extension WHERE extname = 'pg_trgm'", nativeQuery = true)
+    long countTrigramExtension();
+    
+    /**
+     * Add a payment to the stored totals in one statement, only while the row is still at the expected version.
+     * Returns 0 when another write bumped the version first.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Project p SET p.amountReceived = COALESCE(p.amountReceived, 0) + :amount, " +
+           "p.pendingAmount = :pendingAmount, p.paymentStatus = :paymentStatus, " +
+           "p.accountsUpdatedTimestamp = :updatedAt, p.lastUpdatedAt = :updatedAt, p.lastUpdatedBy = :updatedBy, " +
+           "p.version = p.version + 1 " +
+           "WHERE p.id = :id AND p.version = :version")
+    int addPaymentToTotals(@Param("id") Long id,
+                           @Param("version") Long version,
+                           @Param("amount") BigDecimal amount,
+                           @Param("pendingAmount") BigDecimal pendingAmount,
+                           @Param("paymentStatus") String paymentStatus,
+                           @Param("updatedBy") String updatedBy,
+                           @Param("updatedAt") LocalDateTime updatedAt);
+    
+    interface PaymentTotalsDrift {
+        Long getProjectId();
+        BigDecimal getStoredReceived();
+        BigDecimal getLedgerReceived();
+        BigDecimal getStoredPending();
+        BigDecimal getInvoiceAmount();
+    }
+    
+    /**
+     * Projects whose stored amountReceived/pendingAmount disagree with the payment_transactions ledger
+     */
+    @Query("SELECT p.id AS projectId, p.amountReceived AS storedReceived, COALESCE(pt.total, 0) AS ledgerReceived, " +
+           "p.pendingAmount AS storedPending, p.invoiceAmount AS invoiceAmount " +
+           "FROM Project p LEFT JOIN (SELECT t.projectId AS projectId, SUM(t.amountPaid) AS total " +
+           "FROM PaymentTransaction t GROUP BY t.projectId) pt ON pt.projectId = p.id " +
+           "WHERE COALESCE(p.amountReceived, 0) <> COALESCE(pt.total, 0) " +
+           "OR (p.pendingAmount IS NOT NULL AND p.invoiceAmount IS NOT NULL AND p.pendingAmount <> " +
+           "CASE WHEN p.invoiceAmount > COALESCE(pt.total, 0) THEN p.invoiceAmount - COALESCE(pt.total, 0) ELSE 0 END) " +
+           "ORDER BY p.id")
+    List<PaymentTotalsDrift> findPaymentTotalsDrift();
     
     @Query("SELECT COUNT(p) FROM Project p WHERE p.currentStage = :stage")
     long countByStage(@Param("stage") String stage);
+    
+    // ------------------ ANALYTICS AGGREGATES ------------------
+    
+    interface StageCount {
+        String getStage();
+        Long getCount();
+    }
+    
+    interface FinancialTotals {
+        BigDecimal getTotalReceived();
+        BigDecimal getTotalPending();
+        BigDecimal getCompletedRevenue();
+    }
+    
+    interface MonthlyBucket {
+        Integer getYear();
+        Integer getMonth();
+        Long getCount();
+        BigDecimal getRevenue();
+    }
+    
+    @Query("SELECT p.currentStage AS stage, COUNT(p) AS count FROM Project p GROUP BY p.currentStage")
+    List<StageCount> countGroupedByStage();
+    
+    @Query("SELECT COALESCE(SUM(p.amountReceived), 0) AS totalReceived, " +
+           "COALESCE(SUM(p.pendingAmount), 0) AS totalPending, " +
+           "COALESCE(SUM(CASE WHEN p.currentStage = 'COMPLETED' THEN p.projectValue ELSE 0 END), 0) AS completedRevenue " +
+           "FROM Project p")
+    FinancialTotals sumFinancialTotals();
+    
+    /**
+     * Projects created per calendar month since the given instant (revenue is always zero)
+     */
+    @Query("SELECT EXTRACT(YEAR FROM p.createdDate) AS year, EXTRACT(MONTH FROM p.createdDate) AS month, " +
+           "COUNT(p) AS count, 0 AS revenue FROM Project p WHERE p.createdDate >= :since " +
+           "GROUP BY EXTRACT(YEAR FROM p.createdDate), EXTRACT(MONTH FROM p.createdDate)")
+    List<MonthlyBucket> countCreatedByMonth(@Param("since") LocalDateTime since);
+    
+    /**
+     * Projects currently in the given stage, bucketed by the month they entered it, with their summed project value
+     */
+    @Query("SELECT EXTRACT(YEAR FROM p.stageChangeTimestamp) AS year, EXTRACT(MONTH FROM p.stageChangeTimestamp) AS month, " +
+           "COUNT(p) AS count, COALESCE(SUM(p.projectValue), 0) AS revenue FROM Project p " +
+           "WHERE p.currentStage = :stage AND p.stageChangeTimestamp >= :since " +
+           "GROUP BY EXTRACT(YEAR FROM p.stageChangeTimestamp), EXTRACT(MONTH FROM p.stageChangeTimestamp)")
+    List<MonthlyBucket> countStageEntriesByMonth(@Param("stage") String stage, @Param("since") LocalDateTime since);
 }
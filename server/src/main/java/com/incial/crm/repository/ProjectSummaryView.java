@@ -0,0 +1,40 @@
+package com.incial.crm.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Closed projection over the columns shown in the project list tables.
+ * Derived queries returning this type select only these columns, leaving out
+ * the TEXT remark columns and payment history.
+ */
+public interface ProjectSummaryView {
+    Long getId();
+    String getSchool();
+    String getContactPerson();
+    String getContactNumber();
+    String getPlace();
+    String getDistrict();
+    String getRegion();
+    String getProjectName();
+    String getParentCompany();
+    LocalDateTime getCreatedDate();
+    String getCreatedBy();
+    String getCurrentStage();
+    String getPreviousStage();
+    LocalDateTime getStageChangeTimestamp();
+    String getCurrentOwnerRole();
+    BigDecimal getProjectValue();
+    BigDecimal getInvoiceAmount();
+    LocalDate getExpectedDeliveryDate();
+    String getPaymentStatus();
+    BigDecimal getAmountReceived();
+    BigDecimal getPendingAmount();
+    LocalDate getPaymentDate();
+    String getInstallationStatus();
+    LocalDate getCompletionDate();
+    String getLastUpdatedBy();
+    LocalDateTime getLastUpdatedAt();
+    Boolean getIsLocked();
+}
@@ -0,0 +1,13 @@
+package com.incial.crm.repository;
+
+/**
+ * Columns loaded to build the in-memory project typeahead index.
+ */
+public interface ProjectTypeaheadView {
+    Long getId();
+    String getSchool();
+    String getContactPerson();
+    String getContactNumber();
+    String getPlace();
+    String getDistrict();
+}
@@ -0,0 +1,50 @@
+package com.incial.crm.repository;
+
+import com.incial.crm.entity.SchedulerLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Lease statements run on database time (CURRENT_TIMESTAMP), so clock skew between nodes cannot
+ * make two of them consider the lease free. Plain SQL that runs on both PostgreSQL and H2.
+ */
+@Repository
+public interface SchedulerLockRepository extends JpaRepository<SchedulerLock, String> {
+
+    /**
+     * Take the lease for one run when it has expired. Returns 0 while anyone holds it, including
+     * another run with the same node id: the lease is not re-entrant.
+     */
+    @Modifying
+    @Query(value = "UPDATE scheduler_locks SET locked_by = :owner, locked_at = CURRENT_TIMESTAMP, " +
+                   "locked_until = CURRENT_TIMESTAMP + :leaseSeconds * INTERVAL '1' SECOND " +
+                   "WHERE name = :name AND locked_until <= CURRENT_TIMESTAMP",
+           nativeQuery = true)
+    int claim(@Param("name") String name,
+              @Param("owner") String owner,
+              @Param("leaseSeconds") long leaseSeconds);
+
+    /**
+     * First run of a job: create its lease row already held by owner (fails on the primary key if another node won)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO scheduler_locks (name, locked_by, locked_at, locked_until) " +
+                   "VALUES (:name, :owner, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP + :leaseSeconds * INTERVAL '1' SECOND)",
+           nativeQuery = true)
+    int create(@Param("name") String name,
+               @Param("owner") String owner,
+               @Param("leaseSeconds") long leaseSeconds);
+
+    /**
+     * Give the lease back early so the next run does not have to wait for it to expire.
+     * Only the run that took it can release it.
+     */
+    @Modifying
+    @Query(value = "UPDATE scheduler_locks SET locked_until = CURRENT_TIMESTAMP WHERE name = :name AND locked_by = :owner",
+           nativeQuery = true)
+    int release(@Param("name") String name,
+                @Param("owner") String owner);
+}
@@ -0,0 +1,9 @@
+package com.incial.crm.repository;
+
+import com.incial.crm.entity.SchedulerRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SchedulerRunRepository extends JpaRepository<SchedulerRun, Long> {
+}
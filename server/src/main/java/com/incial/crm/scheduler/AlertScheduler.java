@@ -1,30 +1,77 @@
 package com.incial.crm.scheduler;
 
 import com.incial.crm.service.AlertService;
-import lombok.RequiredArgsConstructor;
+import com.incial.crm.service.ScheduledJobRunner;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.OptionalInt;
+
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class AlertScheduler {
     
+    // One lease for everything that creates delay alerts (hourly scan, deadline poll, manual generate),
+    // so no two of them can raise the same alert concurrently
+    public static final String DELAY_ALERT_JOB = "alert-delay-scan";
+    
     private final AlertService alertService;
+    private final ScheduledJobRunner jobRunner;
+    private final Duration lease;
+    private final Duration deadlineLease;
+    
+    public AlertScheduler(AlertService alertService,
+                          ScheduledJobRunner jobRunner,
+                          @Value("${scheduler.alert-scan.lease:30m}") Duration lease,
+                          @Value("${scheduler.alert-deadlines.lease:5m}") Duration deadlineLease) {
+        this.alertService = alertService;
+        this.jobRunner = jobRunner;
+        this.lease = lease;
+        this.deadlineLease = deadlineLease;
+    }
     
     /**
-     * Run alert generation every hour
+     * Full scan every hour, on one node only: the safety net for projects without a deadline
+     * (e.g. already in stage before deadlines existed, or a rule added since)
      * Cron: "0 0 * * * *" means: at minute 0 of every hour
      */
     @Scheduled(cron = "0 0 * * * *")
     public void generateDelayAlerts() {
         log.info("Scheduled alert generation started");
         try {
-            alertService.generateDelayAlerts();
+            runDelayAlertScan(ScheduledJobRunner.TRIGGER_SCHEDULED);
             log.info("Scheduled alert generation completed successfully");
         } catch (Exception e) {
             log.error("Error during scheduled alert generation", e);
         }
     }
+    
+    /**
+     * Raise alerts for projects whose stage deadline has passed, within a poll interval of the breach.
+     * Minutes with nothing due take no lease and record no run; a minute that finds the scan running skips,
+     * and the deadlines stay due for the next poll.
+     */
+    @Scheduled(fixedDelayString = "${alerts.deadlines.poll-interval:PT1M}")
+    public void processDueDeadlines() {
+        try {
+            if (alertService.hasDueDeadlines()) {
+                jobRunner.runExclusive(DELAY_ALERT_JOB, deadlineLease, ScheduledJobRunner.TRIGGER_SCHEDULED,
+                        alertService::processDueDeadlines);
+            }
+        } catch (Exception e) {
+            log.error("Error while processing due alert deadlines", e);
+        }
+    }
+    
+    /**
+     * Scan for delays under the cluster-wide lease
+     *
+     * @return alerts created, or empty when another node is already scanning
+     */
+    public OptionalInt runDelayAlertScan(String trigger) {
+        return jobRunner.runExclusive(DELAY_ALERT_JOB, lease, trigger, alertService::generateDelayAlerts);
+    }
 }
@@ -1,6 +1,6 @@
 package com.incial.crm.security;
 
-import com.incial.crm.entity.User;
+import com.incial.crm.dto.UserSnapshot;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -11,7 +11,7 @@ import java.util.Collections;
 @RequiredArgsConstructor
 public class CustomUserDetails implements UserDetails {
 
-    private final User user;
+    private final UserSnapshot user;
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
@@ -48,7 +48,7 @@ public class CustomUserDetails implements UserDetails {
         return true;
     }
 
-    public User getUser() {
+    public UserSnapshot getUser() {
         return user;
     }
 }
@@ -1,5 +1,6 @@
 package com.incial.crm.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -53,13 +54,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         String token = authHeader.substring(7);
 
-        if (!jwtUtil.isTokenValid(token)) {
+        // One verification per token; repeated tokens come from JwtUtil's cache
+        Claims claims = jwtUtil.getValidClaims(token);
+        if (claims == null) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        String email = jwtUtil.extractUserName(token);
-        String role = jwtUtil.extractRole(token);
+        String email = claims.getSubject();
+        String role = claims.get("role", String.class);
 
         if (email != null &&
                 role != null &&
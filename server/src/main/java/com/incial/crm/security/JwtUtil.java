@@ -1,6 +1,8 @@
 package com.incial.crm.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
@@ -9,7 +11,13 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.function.Function;
 
 @Service
@@ -19,12 +27,30 @@ public class JwtUtil {
     @Value("${jwt.secret}")
     private String secretString;
 
+    @Value("${jwt.cache.max-entries:10000}")
+    private int maxCachedTokens;
+
     private SecretKey key;
 
+    // Built once; JwtParser is immutable and thread-safe
+    private JwtParser parser;
+
+    // Verified claims by SHA-256 of the token, kept until the token expires (LRU-bounded)
+    private Map<String, Claims> verifiedTokens;
+
     @PostConstruct
     public void init() {
         byte[] keyBytes = Decoders.BASE64.decode(secretString);
         this.key = Keys.hmacShaKeyFor(keyBytes);
+        this.parser = Jwts.parser()
+                .verifyWith(key)
+                .build();
+        this.verifiedTokens = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Claims> eldest) {
+                return size() > maxCachedTokens;
+            }
+        };
     }
 
     // Generate token WITH role
@@ -55,22 +81,66 @@ public class JwtUtil {
     // ------------------ VALIDATION ------------------
 
     public boolean isTokenValid(String token) {
+        return getValidClaims(token) != null;
+    }
+
+    /**
+     * Claims of a correctly signed, unexpired token, or null.
+     * The signature is verified once per token; later calls with the same token are served from memory.
+     */
+    public Claims getValidClaims(String token) {
+        String tokenHash = hash(token);
+        Claims claims;
+        synchronized (verifiedTokens) {
+            claims = verifiedTokens.get(tokenHash);
+        }
+        if (claims != null) {
+            if (isExpired(claims)) {
+                synchronized (verifiedTokens) {
+                    verifiedTokens.remove(tokenHash);
+                }
+                return null;
+            }
+            return claims;
+        }
+
         try {
-            return !extractExpiration(token).before(new Date());
-        } catch (Exception e) {
-            return false;
+            claims = parser.parseSignedClaims(token).getPayload();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+        if (isExpired(claims)) {
+            return null;
         }
+        synchronized (verifiedTokens) {
+            verifiedTokens.put(tokenHash, claims);
+        }
+        return claims;
     }
 
     // ------------------ INTERNAL ------------------
 
     private <T> T extractClaim(String token, Function<Claims, T> resolver) {
-        Claims claims = Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-
+        Claims claims = getValidClaims(token);
+        if (claims == null) {
+            throw new JwtException("Invalid or expired token");
+        }
         return resolver.apply(claims);
     }
+
+    /**
+     * A token without an exp claim counts as expired: every token issued here carries one
+     */
+    private boolean isExpired(Claims claims) {
+        return claims.getExpiration() == null || claims.getExpiration().before(new Date());
+    }
+
+    private String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,245 @@
+package com.incial.crm.service;
+
+import com.incial.crm.config.AlertRuleProperties;
+import com.incial.crm.config.AlertRuleProperties.Rule;
+import com.incial.crm.entity.Project;
+import com.incial.crm.entity.ProjectAlert.AlertType;
+import com.incial.crm.repository.ProjectAlertRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Compiles the configured delay alert rules into one query and evaluates them in a single pass.
+ *
+ * Each rule becomes one OR'ed clause (stage, entered-before cutoff, optional scope, and an anti-join on
+ * active alerts of the rule's type), so the database returns only projects that need at least one new alert,
+ * whatever the number of rules. The rules are then matched against those projects in memory.
+ */
+@Component
+@Slf4j
+public class AlertRuleEvaluator {
+
+    // Upper bound for the project id IN list used when loading existing alerts
+    private static final int ALERT_LOOKUP_BATCH_SIZE = 1000;
+
+    private static final int MAX_MESSAGE_LENGTH = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ProjectAlertRepository alertRepository;
+    private final List<Rule> rules;
+    private final String dueProjectsQuery;
+    private final String dueProjectsByIdQuery;
+
+    public AlertRuleEvaluator(AlertRuleProperties properties, ProjectAlertRepository alertRepository) {
+        this.alertRepository = alertRepository;
+        this.rules = List.copyOf(properties.getRules());
+        validate(rules);
+        String ruleClauses = compile(rules);
+        this.dueProjectsQuery = "SELECT p FROM Project p WHERE " + ruleClauses + " ORDER BY p.id";
+        this.dueProjectsByIdQuery = "SELECT p FROM Project p WHERE p.id IN :projectIds AND (" + ruleClauses + ") ORDER BY p.id";
+        log.info("Compiled {} alert rules: {}", rules.size(),
+                rules.stream().map(Rule::getName).collect(Collectors.joining(", ")));
+    }
+
+    /**
+     * Every (project, rule) pair that should produce a new alert now
+     */
+    public List<Match> findDue(LocalDateTime now) {
+        if (rules.isEmpty()) {
+            return List.of();
+        }
+        return evaluate(bind(entityManager.createQuery(dueProjectsQuery, Project.class), now).getResultList(), now);
+    }
+
+    /**
+     * Same as findDue(now), restricted to the given projects (at most a few hundred ids, see AlertService)
+     */
+    public List<Match> findDue(LocalDateTime now, Collection<Long> projectIds) {
+        if (rules.isEmpty() || projectIds.isEmpty()) {
+            return List.of();
+        }
+        TypedQuery<Project> query = bind(entityManager.createQuery(dueProjectsByIdQuery, Project.class), now);
+        query.setParameter("projectIds", projectIds);
+        return evaluate(query.getResultList(), now);
+    }
+
+    /**
+     * When the project, having just entered its current stage, becomes due for each rule of that stage
+     * (scope is checked again at evaluation time, so a later region change is still honoured)
+     */
+    public Map<String, LocalDateTime> deadlinesFor(Project project) {
+        Map<String, LocalDateTime> deadlines = new LinkedHashMap<>();
+        if (project.getStageChangeTimestamp() == null) {
+            return deadlines;
+        }
+        for (Rule rule : rules) {
+            if (rule.getStage().equals(project.getCurrentStage())) {
+                deadlines.put(rule.getName(), project.getStageChangeTimestamp().plusDays(rule.getThresholdDays() + 1L));
+            }
+        }
+        return deadlines;
+    }
+
+    private TypedQuery<Project> bind(TypedQuery<Project> query, LocalDateTime now) {
+        for (int i = 0; i < rules.size(); i++) {
+            Rule rule = rules.get(i);
+            query.setParameter("stage" + i, rule.getStage());
+            // "more than N full days in stage" == entered at or before now - (N + 1) days
+            query.setParameter("cutoff" + i, now.minusDays(rule.getThresholdDays() + 1L));
+            query.setParameter("type" + i, rule.getAlertType());
+            if (rule.getRegion() != null) {
+                query.setParameter("region" + i, rule.getRegion().toLowerCase(Locale.ROOT));
+            }
+            if (rule.getDistrict() != null) {
+                query.setParameter("district" + i, rule.getDistrict().toLowerCase(Locale.ROOT));
+            }
+        }
+        return query;
+    }
+
+    private List<Match> evaluate(List<Project> projects, LocalDateTime now) {
+        if (projects.isEmpty()) {
+            return List.of();
+        }
+
+        Set<String> alerted = loadActiveAlertKeys(projects);
+        List<Match> matches = new ArrayList<>();
+        for (Project project : projects) {
+            for (Rule rule : rules) {
+                // First matching rule per alert type wins; an active alert of that type blocks the rest
+                if (matches(rule, project, now) && alerted.add(key(project.getId(), rule.getAlertType()))) {
+                    long daysInStage = ChronoUnit.DAYS.between(project.getStageChangeTimestamp(), now);
+                    matches.add(new Match(project, rule, daysInStage, render(rule, project, daysInStage)));
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Alert types raised for projects in the stage (dismissed when the project leaves it)
+     */
+    public Set<AlertType> alertTypesForStage(String stage) {
+        return rules.stream()
+                .filter(rule -> rule.getStage().equals(stage))
+                .map(Rule::getAlertType)
+                .collect(Collectors.toSet());
+    }
+
+    private Set<String> loadActiveAlertKeys(List<Project> projects) {
+        List<Long> ids = projects.stream().map(Project::getId).collect(Collectors.toList());
+        Collection<AlertType> types = rules.stream().map(Rule::getAlertType).collect(Collectors.toSet());
+        Set<String> keys = new HashSet<>();
+        for (int from = 0; from < ids.size(); from += ALERT_LOOKUP_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + ALERT_LOOKUP_BATCH_SIZE, ids.size()));
+            for (ProjectAlertRepository.AlertKey alert : alertRepository.findActiveAlertKeys(batch, types)) {
+                keys.add(key(alert.getProjectId(), alert.getAlertType()));
+            }
+        }
+        return keys;
+    }
+
+    private static boolean matches(Rule rule, Project project, LocalDateTime now) {
+        return rule.getStage().equals(project.getCurrentStage())
+                && project.getStageChangeTimestamp() != null
+                && !project.getStageChangeTimestamp().isAfter(now.minusDays(rule.getThresholdDays() + 1L))
+                && (rule.getRegion() == null || rule.getRegion().equalsIgnoreCase(project.getRegion()))
+                && (rule.getDistrict() == null || rule.getDistrict().equalsIgnoreCase(project.getDistrict()));
+    }
+
+    private static String render(Rule rule, Project project, long daysInStage) {
+        Map<String, String> values = Map.of(
+                "{school}", String.valueOf(project.getSchool()),
+                "{stage}", project.getCurrentStage(),
+                "{days}", String.valueOf(daysInStage),
+                "{threshold}", String.valueOf(rule.getThresholdDays()),
+                "{region}", project.getRegion() != null ? project.getRegion() : "Not set",
+                "{district}", project.getDistrict() != null ? project.getDistrict() : "Not set",
+                "{invoiceAmount}", formatCurrency(project.getInvoiceAmount()),
+                "{pendingAmount}", formatCurrency(project.getPendingAmount()),
+                "{expectedDeliveryDate}", project.getExpectedDeliveryDate() != null
+                        ? project.getExpectedDeliveryDate().toString() : "Not set");
+        String message = rule.getMessage();
+        for (Map.Entry<String, String> value : values.entrySet()) {
+            message = message.replace(value.getKey(), value.getValue());
+        }
+        return message.length() > MAX_MESSAGE_LENGTH ? message.substring(0, MAX_MESSAGE_LENGTH) : message;
+    }
+
+    private static String formatCurrency(BigDecimal amount) {
+        if (amount == null) return "0";
+        return String.format("%,.2f", amount);
+    }
+
+    private static String key(Long projectId, AlertType type) {
+        return projectId + ":" + type;
+    }
+
+    /**
+     * One OR'ed clause per rule, parameters suffixed with the rule's index
+     */
+    private static String compile(List<Rule> rules) {
+        List<String> clauses = new ArrayList<>();
+        for (int i = 0; i < rules.size(); i++) {
+            Rule rule = rules.get(i);
+            StringBuilder clause = new StringBuilder("(p.currentStage = :stage").append(i)
+                    .append(" AND p.stageChangeTimestamp <= :cutoff").append(i);
+            if (rule.getRegion() != null) {
+                clause.append(" AND LOWER(p.region) = :region").append(i);
+            }
+            if (rule.getDistrict() != null) {
+                clause.append(" AND LOWER(p.district) = :district").append(i);
+            }
+            clause.append(" AND NOT EXISTS (SELECT a.id FROM ProjectAlert a WHERE a.project = p")
+                    .append(" AND a.alertType = :type").append(i).append(" AND a.isActive = true))");
+            clauses.add(clause.toString());
+        }
+        return String.join(" OR ", clauses);
+    }
+
+    private static void validate(List<Rule> rules) {
+        Set<String> names = new HashSet<>();
+        for (Rule rule : rules) {
+            if (rule.getName() == null || !names.add(rule.getName())) {
+                throw new IllegalStateException("Alert rules need a unique name: " + rule.getName());
+            }
+            if (rule.getAlertType() == null || rule.getStage() == null || rule.getMessage() == null
+                    || rule.getSeverity() == null) {
+                throw new IllegalStateException("Alert rule " + rule.getName()
+                        + " needs alert-type, stage, severity and message");
+            }
+            if (rule.getThresholdDays() < 0) {
+                throw new IllegalStateException("Alert rule " + rule.getName() + " has a negative threshold");
+            }
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Match {
+        private final Project project;
+        private final Rule rule;
+        private final long daysInStage;
+        private final String message;
+    }
+}
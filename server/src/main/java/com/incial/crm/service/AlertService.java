@@ -1,19 +1,34 @@
 package com.incial.crm.service;
 
+import com.incial.crm.config.AlertRuleProperties;
+import com.incial.crm.dto.AlertDto;
+import com.incial.crm.dto.AlertEventDto;
+import com.incial.crm.dto.AlertEventDto.EventType;
+import com.incial.crm.dto.AlertSummaryDto;
+import com.incial.crm.dto.PagedResponse;
+import com.incial.crm.entity.AlertDeadline;
 import com.incial.crm.entity.Project;
 import com.incial.crm.entity.ProjectAlert;
 import com.incial.crm.entity.ProjectAlert.AlertSeverity;
 import com.incial.crm.entity.ProjectAlert.AlertType;
+import com.incial.crm.repository.AlertDeadlineRepository;
 import com.incial.crm.repository.ProjectAlertRepository;
-import com.incial.crm.repository.ProjectRepository;
+import com.incial.crm.repository.ProjectAlertRepository.AlertCount;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -21,132 +36,110 @@ import java.util.List;
 public class AlertService {
     
     private final ProjectAlertRepository alertRepository;
-    private final ProjectRepository projectRepository;
+    private final AlertRuleEvaluator alertRuleEvaluator;
+    private final AlertStreamService alertStreamService;
+    private final AlertDeadlineRepository alertDeadlineRepository;
     
-    // Threshold constants from PRD
-    private static final int STAGE_INACTIVITY_DAYS = 7;  // In Review > 7 days
-    private static final int PAYMENT_DELAY_DAYS = 10;    // Accounts > 10 days
-    private static final int INSTALLATION_DELAY_DAYS = 5; // Installation > 5 days
+    // Deadlines checked per poll; the rest wait for the next one
+    @Value("${alerts.deadlines.batch-size:500}")
+    private int deadlineBatchSize;
+    
+    // Alerts are handed to the persistence context in chunks of this size
+    private static final int ALERT_INSERT_BATCH_SIZE = 500;
+    
+    // Paging limits for the alert list endpoint
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
     
     /**
-     * Scan all projects and generate alerts for delays
+     * Scan for overdue projects and generate alerts for delays.
+     * All configured rules (alerts.rules) are evaluated in one query returning only projects that need a new alert.
+     * Deadlines (see processDueDeadlines) raise most alerts sooner; this full scan is the safety net.
+     *
+     * @return number of alerts created
      */
     @Transactional
-    public void generateDelayAlerts() {
+    public int generateDelayAlerts() {
         log.info("Starting delay alert generation scan...");
         
-        checkStageInactivity();
-        checkPaymentDelays();
-        checkInstallationDelays();
+        int created = createAlerts(alertRuleEvaluator.findDue(LocalDateTime.now()));
         
-        log.info("Delay alert generation scan completed");
+        log.info("Delay alert generation scan completed, {} alerts created", created);
+        return created;
     }
     
     /**
-     * Check for projects stuck in IN_REVIEW stage > 7 days
+     * Replace the project's alert deadlines with those of the stage it just entered
      */
-    private void checkStageInactivity() {
-        List<Project> inReviewProjects = projectRepository.findByCurrentStage("IN_REVIEW");
+    @Transactional
+    public void scheduleDeadlines(Project project) {
+        alertDeadlineRepository.deleteByProjectId(project.getId());
         
-        for (Project project : inReviewProjects) {
-            if (project.getStageChangeTimestamp() != null) {
-                long daysInStage = ChronoUnit.DAYS.between(project.getStageChangeTimestamp(), LocalDateTime.now());
-                
-                if (daysInStage > STAGE_INACTIVITY_DAYS) {
-                    // Check if alert already exists
-                    List<ProjectAlert> existingAlerts = alertRepository.findActiveAlertsByProjectAndType(
-                        project.getId(), AlertType.STAGE_INACTIVITY
-                    );
-                    
-                    if (existingAlerts.isEmpty()) {
-                        createAlert(
-                            project,
-                            AlertType.STAGE_INACTIVITY,
-                            AlertSeverity.WARNING,
-                            String.format("Project '%s' has been in Review stage for %d days (threshold: %d days)",
-                                project.getSchool(), daysInStage, STAGE_INACTIVITY_DAYS),
-                            (int) daysInStage - STAGE_INACTIVITY_DAYS
-                        );
-                        log.info("Created stage inactivity alert for project: {}", project.getId());
-                    }
-                }
-            }
+        List<AlertDeadline> deadlines = new ArrayList<>();
+        for (Map.Entry<String, LocalDateTime> deadline : alertRuleEvaluator.deadlinesFor(project).entrySet()) {
+            deadlines.add(AlertDeadline.builder()
+                .projectId(project.getId())
+                .ruleName(deadline.getKey())
+                .dueAt(deadline.getValue())
+                .build());
         }
+        alertDeadlineRepository.saveAll(deadlines);
     }
     
     /**
-     * Check for projects in ACCOUNTS stage > 10 days
+     * Check only the projects whose deadline has passed, at most deadlineBatchSize per call
+     * (rows for projects that moved on or no longer match are just removed)
+     *
+     * @return number of alerts created
      */
-    private void checkPaymentDelays() {
-        List<Project> accountsProjects = projectRepository.findByCurrentStage("ACCOUNTS");
+    @Transactional
+    public int processDueDeadlines() {
+        LocalDateTime now = LocalDateTime.now();
+        List<AlertDeadline> due = alertDeadlineRepository.findDue(now, PageRequest.of(0, deadlineBatchSize));
+        if (due.isEmpty()) {
+            return 0;
+        }
         
-        for (Project project : accountsProjects) {
-            if (project.getStageChangeTimestamp() != null) {
-                long daysInStage = ChronoUnit.DAYS.between(project.getStageChangeTimestamp(), LocalDateTime.now());
-                
-                if (daysInStage > PAYMENT_DELAY_DAYS) {
-                    List<ProjectAlert> existingAlerts = alertRepository.findActiveAlertsByProjectAndType(
-                        project.getId(), AlertType.PAYMENT_DELAY
-                    );
-                    
-                    if (existingAlerts.isEmpty()) {
-                        createAlert(
-                            project,
-                            AlertType.PAYMENT_DELAY,
-                            AlertSeverity.CRITICAL,
-                            String.format("Payment pending for project '%s' for %d days (threshold: %d days). " +
-                                "Invoice Amount: ₹%s, Pending: ₹%s",
-                                project.getSchool(), daysInStage, PAYMENT_DELAY_DAYS,
-                                formatCurrency(project.getInvoiceAmount()),
-                                formatCurrency(project.getPendingAmount())),
-                            (int) daysInStage - PAYMENT_DELAY_DAYS
-                        );
-                        log.info("Created payment delay alert for project: {}", project.getId());
-                    }
-                }
-            }
+        Set<Long> projectIds = new HashSet<>();
+        for (AlertDeadline deadline : due) {
+            projectIds.add(deadline.getProjectId());
         }
+        int created = createAlerts(alertRuleEvaluator.findDue(now, projectIds));
+        alertDeadlineRepository.deleteAllInBatch(due);
+        
+        log.debug("Checked {} due alert deadlines, {} alerts created", due.size(), created);
+        return created;
     }
     
     /**
-     * Check for projects in INSTALLATION stage > 5 days
+     * Whether any deadline has passed (a single index probe, so an idle poll stays cheap)
      */
-    private void checkInstallationDelays() {
-        List<Project> installationProjects = projectRepository.findByCurrentStage("INSTALLATION");
+    @Transactional(readOnly = true)
+    public boolean hasDueDeadlines() {
+        return alertDeadlineRepository.existsByDueAtLessThanEqual(LocalDateTime.now());
+    }
+    
+    private int createAlerts(List<AlertRuleEvaluator.Match> matches) {
+        List<ProjectAlert> alerts = new ArrayList<>(matches.size());
+        for (AlertRuleEvaluator.Match match : matches) {
+            AlertRuleProperties.Rule rule = match.getRule();
+            alerts.add(buildAlert(match.getProject(), rule.getAlertType(), rule.getSeverity(), match.getMessage(),
+                (int) match.getDaysInStage() - rule.getThresholdDays()));
+        }
         
-        for (Project project : installationProjects) {
-            if (project.getStageChangeTimestamp() != null) {
-                long daysInStage = ChronoUnit.DAYS.between(project.getStageChangeTimestamp(), LocalDateTime.now());
-                
-                if (daysInStage > INSTALLATION_DELAY_DAYS) {
-                    List<ProjectAlert> existingAlerts = alertRepository.findActiveAlertsByProjectAndType(
-                        project.getId(), AlertType.INSTALLATION_DELAY
-                    );
-                    
-                    if (existingAlerts.isEmpty()) {
-                        createAlert(
-                            project,
-                            AlertType.INSTALLATION_DELAY,
-                            AlertSeverity.CRITICAL,
-                            String.format("Installation pending for project '%s' for %d days (threshold: %d days). " +
-                                "Expected Delivery: %s",
-                                project.getSchool(), daysInStage, INSTALLATION_DELAY_DAYS,
-                                project.getExpectedDeliveryDate() != null ? project.getExpectedDeliveryDate() : "Not set"),
-                            (int) daysInStage - INSTALLATION_DELAY_DAYS
-                        );
-                        log.info("Created installation delay alert for project: {}", project.getId());
-                    }
-                }
-            }
+        for (int from = 0; from < alerts.size(); from += ALERT_INSERT_BATCH_SIZE) {
+            alertRepository.saveAll(alerts.subList(from, Math.min(from + ALERT_INSERT_BATCH_SIZE, alerts.size())));
         }
+        publishEvents(EventType.CREATED, alerts);
+        return alerts.size();
     }
     
     /**
-     * Create a new alert
+     * Build a new alert
      */
-    private void createAlert(Project project, AlertType type, AlertSeverity severity, 
-                            String message, int daysOverdue) {
-        ProjectAlert alert = ProjectAlert.builder()
+    private ProjectAlert buildAlert(Project project, AlertType type, AlertSeverity severity,
+                                    String message, int daysOverdue) {
+        return ProjectAlert.builder()
             .project(project)
             .alertType(type)
             .severity(severity)
@@ -154,36 +147,74 @@ public class AlertService {
             .daysOverdue(daysOverdue)
             .isActive(true)
             .build();
-        
-        alertRepository.save(alert);
     }
     
     /**
-     * Get all active alerts
+     * Get all active alerts, newest first (null filters match everything)
      */
-    public List<ProjectAlert> getActiveAlerts() {
-        return alertRepository.findByIsActiveTrueOrderByCreatedAtDesc();
+    @Transactional(readOnly = true)
+    public List<AlertDto> getActiveAlerts(AlertSeverity severity, AlertType alertType) {
+        return alertRepository.findActiveAlertDtos(severity, alertType);
     }
     
     /**
-     * Get alerts for a specific project
+     * Get one page of active alerts, newest first (null filters match everything)
      */
-    public List<ProjectAlert> getProjectAlerts(Long projectId) {
-        return alertRepository.findByProjectIdAndIsActiveTrue(projectId);
+    @Transactional(readOnly = true)
+    public PagedResponse<AlertDto> getActiveAlerts(AlertSeverity severity, AlertType alertType, Integer page, Integer size) {
+        int pageIndex = page != null ? page : 0;
+        int pageSize = size != null ? size : DEFAULT_PAGE_SIZE;
+        if (pageIndex < 0) {
+            throw new IllegalArgumentException("Page index must not be negative");
+        }
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        
+        Page<AlertDto> result = alertRepository.findActiveAlertDtos(severity, alertType, PageRequest.of(pageIndex, pageSize));
+        return PagedResponse.<AlertDto>builder()
+            .content(result.getContent())
+            .size(pageSize)
+            .hasNext(result.hasNext())
+            .page(pageIndex)
+            .totalElements(result.getTotalElements())
+            .totalPages(result.getTotalPages())
+            .build();
     }
     
     /**
-     * Get alert count by severity
+     * Get alerts for a specific project
      */
-    public Long getAlertCountBySeverity(AlertSeverity severity) {
-        return alertRepository.countActiveBySeverity(severity);
+    @Transactional(readOnly = true)
+    public List<AlertDto> getProjectAlerts(Long projectId) {
+        return alertRepository.findActiveAlertDtosByProjectId(projectId);
     }
     
     /**
-     * Get total active alert count
+     * Active alert totals by severity and by type, from one grouped count
      */
-    public Long getActiveAlertCount() {
-        return alertRepository.countActiveAlerts();
+    @Transactional(readOnly = true)
+    public AlertSummaryDto getAlertSummary() {
+        Map<AlertSeverity, Long> bySeverity = new EnumMap<>(AlertSeverity.class);
+        Map<AlertType, Long> byType = new EnumMap<>(AlertType.class);
+        for (AlertType type : AlertType.values()) {
+            byType.put(type, 0L);
+        }
+        
+        long total = 0;
+        for (AlertCount count : alertRepository.countActiveGroupedBySeverityAndType()) {
+            bySeverity.merge(count.getSeverity(), count.getCount(), Long::sum);
+            byType.merge(count.getAlertType(), count.getCount(), Long::sum);
+            total += count.getCount();
+        }
+        
+        return AlertSummaryDto.builder()
+            .totalAlerts(total)
+            .criticalAlerts(bySeverity.getOrDefault(AlertSeverity.CRITICAL, 0L))
+            .warningAlerts(bySeverity.getOrDefault(AlertSeverity.WARNING, 0L))
+            .infoAlerts(bySeverity.getOrDefault(AlertSeverity.INFO, 0L))
+            .alertsByType(byType)
+            .build();
     }
     
     /**
@@ -199,6 +230,7 @@ public class AlertService {
         alert.setDismissedBy(dismissedBy);
         
         alertRepository.save(alert);
+        publishEvents(EventType.DISMISSED, List.of(alert));
         log.info("Alert {} dismissed by {}", alertId, dismissedBy);
     }
     
@@ -207,8 +239,21 @@ public class AlertService {
      */
     @Transactional
     public void autoDismissAlertsForProject(Long projectId, AlertType alertType) {
-        List<ProjectAlert> alerts = alertRepository.findActiveAlertsByProjectAndType(projectId, alertType);
-        
+        autoDismiss(projectId, alertRepository.findActiveAlertsByProjectAndType(projectId, alertType));
+    }
+    
+    /**
+     * Auto-dismiss the alerts raised by the rules for a stage the project just left
+     */
+    @Transactional
+    public void autoDismissAlertsForStage(Long projectId, String stage) {
+        Set<AlertType> types = alertRuleEvaluator.alertTypesForStage(stage);
+        if (!types.isEmpty()) {
+            autoDismiss(projectId, alertRepository.findActiveAlertsByProjectAndTypes(projectId, types));
+        }
+    }
+    
+    private void autoDismiss(Long projectId, List<ProjectAlert> alerts) {
         for (ProjectAlert alert : alerts) {
             alert.setIsActive(false);
             alert.setDismissedAt(LocalDateTime.now());
@@ -217,12 +262,19 @@ public class AlertService {
         }
         
         if (!alerts.isEmpty()) {
+            publishEvents(EventType.DISMISSED, alerts);
             log.info("Auto-dismissed {} alerts for project {}", alerts.size(), projectId);
         }
     }
     
-    private String formatCurrency(java.math.BigDecimal amount) {
-        if (amount == null) return "0";
-        return String.format("%,.2f", amount);
+    /**
+     * Push the changes to live alert streams once the current transaction commits
+     */
+    private void publishEvents(EventType type, List<ProjectAlert> alerts) {
+        List<AlertEventDto> events = new ArrayList<>(alerts.size());
+        for (ProjectAlert alert : alerts) {
+            events.add(AlertEventDto.builder().type(type).alert(AlertDto.fromEntity(alert)).build());
+        }
+        alertStreamService.publishAfterCommit(events);
     }
 }
@@ -0,0 +1,182 @@
+package com.incial.crm.service;
+
+import com.incial.crm.dto.AlertEventDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes alert created/dismissed events to connected clients over Server-Sent Events.
+ *
+ * Every connection has its own bounded queue, drained by a small shared sender pool, so a slow client
+ * never blocks the publisher or other clients. A connection whose queue overflows is closed;
+ * the client reconnects and reloads the alert list. A heartbeat keeps idle connections (and proxies) alive.
+ */
+@Service
+@Slf4j
+public class AlertStreamService {
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final int queueCapacity;
+    private final Duration connectionTimeout;
+
+    private final AtomicInteger senderThreads = new AtomicInteger();
+    private final ExecutorService senders;
+
+    private final Counter droppedSubscribers;
+
+    public AlertStreamService(MeterRegistry meterRegistry,
+                              @Value("${alerts.stream.queue-capacity:100}") int queueCapacity,
+                              @Value("${alerts.stream.connection-timeout:30m}") Duration connectionTimeout,
+                              @Value("${alerts.stream.sender-threads:4}") int senderThreadCount) {
+        this.queueCapacity = queueCapacity;
+        this.connectionTimeout = connectionTimeout;
+        this.senders = Executors.newFixedThreadPool(senderThreadCount, runnable -> {
+            Thread thread = new Thread(runnable, "alert-stream-sender-" + senderThreads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("alerts.stream.subscribers", subscribers, Set::size).register(meterRegistry);
+        this.droppedSubscribers = Counter.builder("alerts.stream.dropped").register(meterRegistry);
+    }
+
+    /**
+     * Open a new stream; it ends on client disconnect, timeout or queue overflow
+     */
+    public SseEmitter subscribe(String username) {
+        SseEmitter emitter = new SseEmitter(connectionTimeout.toMillis());
+        Subscriber subscriber = new Subscriber(username, emitter, new ArrayBlockingQueue<>(queueCapacity));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+
+        // First event tells the client the stream is live, so it can reload the list once
+        subscriber.offer(SseEmitter.event().name("connected").data("ok"));
+        log.debug("Alert stream opened for {} ({} open)", username, subscribers.size());
+        return emitter;
+    }
+
+    /**
+     * Send the events to all subscribers once the current transaction commits (immediately when there is none)
+     */
+    public void publishAfterCommit(List<AlertEventDto> events) {
+        if (events.isEmpty() || subscribers.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(events);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(events);
+            }
+        });
+    }
+
+    private void publish(List<AlertEventDto> events) {
+        for (Subscriber subscriber : subscribers) {
+            for (AlertEventDto event : events) {
+                if (!subscriber.offer(SseEmitter.event()
+                        .name("alert")
+                        .data(event, MediaType.APPLICATION_JSON))) {
+                    break;
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${alerts.stream.heartbeat-interval:PT15S}")
+    public void sendHeartbeats() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(SseEmitter.event().comment("heartbeat"));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        senders.shutdownNow();
+    }
+
+    private class Subscriber {
+
+        private final String username;
+        private final SseEmitter emitter;
+        private final Queue<SseEmitter.SseEventBuilder> queue;
+
+        // Set while a sender thread is draining this queue, so events go out in order
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(String username, SseEmitter emitter, Queue<SseEmitter.SseEventBuilder> queue) {
+            this.username = username;
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+
+        /**
+         * Queue an event; returns false (and closes the stream) when the client is too far behind
+         */
+        boolean offer(SseEmitter.SseEventBuilder event) {
+            if (!queue.offer(event)) {
+                log.warn("Alert stream for {} fell {} events behind, closing it", username, queueCapacity);
+                droppedSubscribers.increment();
+                close();
+                return false;
+            }
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+            return true;
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while ((event = queue.poll()) != null) {
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away; the emitter callbacks take care of the rest
+                log.debug("Alert stream for {} closed: {}", username, e.getMessage());
+                close();
+                return;
+            } finally {
+                draining.set(false);
+            }
+            // An event may have arrived between the last poll and clearing the flag
+            if (!queue.isEmpty() && draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void close() {
+            subscribers.remove(this);
+            queue.clear();
+            emitter.complete();
+        }
+    }
+}
@@ -4,8 +4,10 @@ import com.incial.crm.dto.AnalyticsDto;
 import com.incial.crm.dto.FinancialSummaryDto;
 import com.incial.crm.dto.MonthlyTrendDto;
 import com.incial.crm.dto.StageDistributionDto;
-import com.incial.crm.entity.Project;
 import com.incial.crm.repository.ProjectRepository;
+import com.incial.crm.repository.ProjectRepository.FinancialTotals;
+import com.incial.crm.repository.ProjectRepository.MonthlyBucket;
+import com.incial.crm.repository.ProjectRepository.StageCount;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -13,10 +15,16 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
 
+/**
+ * Dashboard analytics.
+ * All figures come from GROUP BY aggregates in ProjectRepository, so the cost of a dashboard
+ * load depends on the number of stages and months, not on the number of projects.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -24,49 +32,39 @@ import java.util.stream.Collectors;
 public class AnalyticsService {
 
     private final ProjectRepository projectRepository;
-    
+
     private static final String STAGE_COMPLETED = "COMPLETED";
+    private static final int TREND_MONTHS = 6;
 
     /**
      * Get comprehensive analytics dashboard data
      */
     public AnalyticsDto getDashboardAnalytics() {
         log.info("Generating dashboard analytics");
-        
-        List<Project> allProjects = projectRepository.findAll();
-        
+
+        List<StageCount> stageCounts = projectRepository.countGroupedByStage();
+
         // Calculate overall statistics
-        long totalProjects = allProjects.size();
-        long completedProjects = allProjects.stream()
-                .filter(p -> STAGE_COMPLETED.equals(p.getCurrentStage()))
-                .count();
+        long totalProjects = stageCounts.stream().mapToLong(StageCount::getCount).sum();
+        long completedProjects = stageCounts.stream()
+                .filter(c -> STAGE_COMPLETED.equals(c.getStage()))
+                .mapToLong(StageCount::getCount)
+                .sum();
         long activeProjects = totalProjects - completedProjects;
         double successRate = totalProjects > 0 ? (completedProjects * 100.0 / totalProjects) : 0;
-        
+
         // Get financial summary
-        FinancialSummaryDto financialSummary = calculateFinancialSummary(allProjects);
-        
+        FinancialSummaryDto financialSummary = getFinancialSummary();
+
         // Get stage distribution
-        List<StageDistributionDto> stageDistribution = calculateStageDistribution(allProjects);
-        
+        List<StageDistributionDto> stageDistribution = toStageDistribution(stageCounts);
+
         // Get monthly trends
-        List<MonthlyTrendDto> monthlyTrends = calculateMonthlyTrends(allProjects);
-        
-        // Calculate this month's stats
-        LocalDateTime startOfMonth = LocalDateTime.now().withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0);
-        long projectsThisMonth = allProjects.stream()
-                .filter(p -> p.getCreatedDate() != null && p.getCreatedDate().isAfter(startOfMonth))
-                .count();
-        long completedThisMonth = allProjects.stream()
-                .filter(p -> STAGE_COMPLETED.equals(p.getCurrentStage()))
-                .filter(p -> p.getStageChangeTimestamp() != null && p.getStageChangeTimestamp().isAfter(startOfMonth))
-                .count();
-        double revenueThisMonth = allProjects.stream()
-                .filter(p -> STAGE_COMPLETED.equals(p.getCurrentStage()))
-                .filter(p -> p.getStageChangeTimestamp() != null && p.getStageChangeTimestamp().isAfter(startOfMonth))
-                .mapToDouble(p -> p.getProjectValue() != null ? p.getProjectValue().doubleValue() : 0.0)
-                .sum();
-        
+        List<MonthlyTrendDto> monthlyTrends = getMonthlyTrends();
+
+        // This month's stats are the last trend bucket
+        MonthlyTrendDto thisMonth = monthlyTrends.get(monthlyTrends.size() - 1);
+
         return AnalyticsDto.builder()
                 .totalProjects(totalProjects)
                 .activeProjects(activeProjects)
@@ -75,65 +73,24 @@ public class AnalyticsService {
                 .financialSummary(financialSummary)
                 .stageDistribution(stageDistribution)
                 .monthlyTrends(monthlyTrends)
-                .projectsThisMonth(projectsThisMonth)
-                .completedThisMonth(completedThisMonth)
-                .revenueThisMonth(Math.round(revenueThisMonth * 100.0) / 100.0)
+                .projectsThisMonth(thisMonth.getProjectCount())
+                .completedThisMonth(thisMonth.getCompletedCount())
+                .revenueThisMonth(thisMonth.getRevenue())
                 .build();
     }
 
     /**
-     * Calculate financial summary
+     * Convert grouped stage counts to the stage distribution
      */
-    private FinancialSummaryDto calculateFinancialSummary(List<Project> projects) {
-        double completedRevenue = projects.stream()
-                .filter(p -> STAGE_COMPLETED.equals(p.getCurrentStage()))
-                .mapToDouble(p -> p.getProjectValue() != null ? p.getProjectValue().doubleValue() : 0.0)
-                .sum();
-        
-        // Calculate total revenue from actual payments received (not billed amounts)
-        double totalRevenue = projects.stream()
-                .mapToDouble(p -> p.getAmountReceived() != null ? p.getAmountReceived().doubleValue() : 0.0)
-                .sum();
-        
-        double totalReceived = projects.stream()
-                .mapToDouble(p -> p.getAmountReceived() != null ? p.getAmountReceived().doubleValue() : 0.0)
-                .sum();
-        
-        // Pending Revenue = Total Invoice Amount - Total Received (actual unpaid balance)
-        // This will update dynamically as payments are recorded
-        double pendingRevenue = projects.stream()
-                .mapToDouble(p -> p.getPendingAmount() != null ? p.getPendingAmount().doubleValue() : 0.0)
-                .sum();
-        
-        double totalPending = pendingRevenue; // Same as pendingRevenue for consistency
-        
-        return FinancialSummaryDto.builder()
-                .totalRevenue(Math.round(totalRevenue * 100.0) / 100.0)
-                .completedRevenue(Math.round(completedRevenue * 100.0) / 100.0)
-                .pendingRevenue(Math.round(pendingRevenue * 100.0) / 100.0)
-                .totalReceived(Math.round(totalReceived * 100.0) / 100.0)
-                .totalPending(Math.round(totalPending * 100.0) / 100.0)
-                .build();
-    }
+    private List<StageDistributionDto> toStageDistribution(List<StageCount> stageCounts) {
+        long totalProjects = stageCounts.stream().mapToLong(StageCount::getCount).sum();
 
-    /**
-     * Calculate stage distribution
-     */
-    private List<StageDistributionDto> calculateStageDistribution(List<Project> projects) {
-        long totalProjects = projects.size();
-        
-        Map<String, Long> stageCount = projects.stream()
-                .collect(Collectors.groupingBy(
-                        Project::getCurrentStage,
-                        Collectors.counting()
-                ));
-        
-        return stageCount.entrySet().stream()
+        return stageCounts.stream()
                 .map(entry -> {
-                    double percentage = totalProjects > 0 ? (entry.getValue() * 100.0 / totalProjects) : 0;
+                    double percentage = totalProjects > 0 ? (entry.getCount() * 100.0 / totalProjects) : 0;
                     return StageDistributionDto.builder()
-                            .stage(entry.getKey())
-                            .count(entry.getValue())
+                            .stage(entry.getStage())
+                            .count(entry.getCount())
                             .percentage(Math.round(percentage * 100.0) / 100.0)
                             .build();
                 })
@@ -142,71 +99,80 @@ public class AnalyticsService {
     }
 
     /**
-     * Calculate monthly trends for last 6 months
+     * Get stage distribution only
      */
-    private List<MonthlyTrendDto> calculateMonthlyTrends(List<Project> projects) {
-        LocalDateTime now = LocalDateTime.now();
-        List<MonthlyTrendDto> trends = new ArrayList<>();
+    public List<StageDistributionDto> getStageDistribution() {
+        return toStageDistribution(projectRepository.countGroupedByStage());
+    }
+
+    /**
+     * Get monthly trends for the last 6 months (oldest first)
+     */
+    public List<MonthlyTrendDto> getMonthlyTrends() {
+        YearMonth currentMonth = YearMonth.now();
+        YearMonth firstMonth = currentMonth.minusMonths(TREND_MONTHS - 1);
+        LocalDateTime since = firstMonth.atDay(1).atStartOfDay();
+
+        // Projects created per month, and projects completed per month with their revenue
+        Map<YearMonth, MonthlyBucket> created = byMonth(projectRepository.countCreatedByMonth(since));
+        Map<YearMonth, MonthlyBucket> completed = byMonth(projectRepository.countStageEntriesByMonth(STAGE_COMPLETED, since));
+
         DateTimeFormatter monthFormatter = DateTimeFormatter.ofPattern("MMM");
-        
-        for (int i = 5; i >= 0; i--) {
-            LocalDateTime monthStart = now.minusMonths(i).withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0);
-            LocalDateTime monthEnd = monthStart.plusMonths(1);
-            
-            // Projects created in this month
-            long projectCount = projects.stream()
-                    .filter(p -> p.getCreatedDate() != null)
-                    .filter(p -> !p.getCreatedDate().isBefore(monthStart) && p.getCreatedDate().isBefore(monthEnd))
-                    .count();
-            
-            // Projects completed in this month
-            long completedCount = projects.stream()
-                    .filter(p -> STAGE_COMPLETED.equals(p.getCurrentStage()))
-                    .filter(p -> p.getStageChangeTimestamp() != null)
-                    .filter(p -> !p.getStageChangeTimestamp().isBefore(monthStart) && p.getStageChangeTimestamp().isBefore(monthEnd))
-                    .count();
-            
-            // Revenue from completed projects in this month
-            double revenue = projects.stream()
-                    .filter(p -> STAGE_COMPLETED.equals(p.getCurrentStage()))
-                    .filter(p -> p.getStageChangeTimestamp() != null)
-                    .filter(p -> !p.getStageChangeTimestamp().isBefore(monthStart) && p.getStageChangeTimestamp().isBefore(monthEnd))
-                    .mapToDouble(p -> p.getProjectValue() != null ? p.getProjectValue().doubleValue() : 0.0)
-                    .sum();
-            
+        List<MonthlyTrendDto> trends = new ArrayList<>();
+        for (YearMonth month = firstMonth; !month.isAfter(currentMonth); month = month.plusMonths(1)) {
+            MonthlyBucket createdBucket = created.get(month);
+            MonthlyBucket completedBucket = completed.get(month);
+            double revenue = completedBucket != null && completedBucket.getRevenue() != null
+                    ? completedBucket.getRevenue().doubleValue()
+                    : 0.0;
+
             trends.add(MonthlyTrendDto.builder()
-                    .month(monthStart.format(monthFormatter))
-                    .year(monthStart.getYear())
-                    .projectCount(projectCount)
-                    .completedCount(completedCount)
+                    .month(month.atDay(1).format(monthFormatter))
+                    .year(month.getYear())
+                    .projectCount(createdBucket != null ? createdBucket.getCount() : 0L)
+                    .completedCount(completedBucket != null ? completedBucket.getCount() : 0L)
                     .revenue(Math.round(revenue * 100.0) / 100.0)
                     .build());
         }
-        
-        return trends;
-    }
 
-    /**
-     * Get stage distribution only
-     */
-    public List<StageDistributionDto> getStageDistribution() {
-        List<Project> allProjects = projectRepository.findAll();
-        return calculateStageDistribution(allProjects);
+        return trends;
     }
 
-    /**
-     * Get monthly trends only
-     */
-    public List<MonthlyTrendDto> getMonthlyTrends() {
-        List<Project> allProjects = projectRepository.findAll();
-        return calculateMonthlyTrends(allProjects);
+    private Map<YearMonth, MonthlyBucket> byMonth(List<MonthlyBucket> buckets) {
+        Map<YearMonth, MonthlyBucket> result = new HashMap<>();
+        for (MonthlyBucket bucket : buckets) {
+            result.put(YearMonth.of(bucket.getYear(), bucket.getMonth()), bucket);
+        }
+        return result;
     }
 
     /**
      * Get financial summary only
      */
     public FinancialSummaryDto getFinancialSummary() {
-        List<Project> allProjects = projectRepository.findAll();
-        return calculateFinancialSummary(allProjects);
+        FinancialTotals totals = projectRepository.sumFinancialTotals();
+
+        double completedRevenue = toDouble(totals.getCompletedRevenue());
+
+        // Total revenue is the actual payments received (not billed amounts)
+        double totalReceived = toDouble(totals.getTotalReceived());
+        double totalRevenue = totalReceived;
+
+        // Pending Revenue = Total Invoice Amount - Total Received (actual unpaid balance)
+        // This will update dynamically as payments are recorded
+        double pendingRevenue = toDouble(totals.getTotalPending());
+        double totalPending = pendingRevenue; // Same as pendingRevenue for consistency
+
+        return FinancialSummaryDto.builder()
+                .totalRevenue(Math.round(totalRevenue * 100.0) / 100.0)
+                .completedRevenue(Math.round(completedRevenue * 100.0) / 100.0)
+                .pendingRevenue(Math.round(pendingRevenue * 100.0) / 100.0)
+                .totalReceived(Math.round(totalReceived * 100.0) / 100.0)
+                .totalPending(Math.round(totalPending * 100.0) / 100.0)
+                .build();
+    }
+
+    private double toDouble(BigDecimal value) {
+        return value != null ? value.doubleValue() : 0.0;
     }
 }
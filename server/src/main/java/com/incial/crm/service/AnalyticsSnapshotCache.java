@@ -0,0 +1,129 @@
+package com.incial.crm.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * In-process snapshot of the analytics responses shared by all dashboard viewers.
+ * Entries expire after a TTL and the whole snapshot is dropped whenever a project write commits,
+ * so viewers never see figures older than the last committed change (or the TTL, whichever is shorter).
+ */
+@Component
+@Slf4j
+public class AnalyticsSnapshotCache {
+
+    private final Duration ttl;
+    private final Map<String, Snapshot<?>> snapshots;
+
+    // Bumped on every invalidation; a snapshot computed under an older generation is never published
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public AnalyticsSnapshotCache(MeterRegistry meterRegistry,
+                                  @Value("${analytics.snapshot.ttl:60s}") Duration ttl,
+                                  @Value("${analytics.snapshot.max-entries:16}") int maxEntries) {
+        this.ttl = ttl;
+        this.snapshots = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Snapshot<?>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.hits = Counter.builder("analytics.snapshot.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("analytics.snapshot.requests").tag("result", "miss").register(meterRegistry);
+    }
+
+    /**
+     * Return the cached snapshot for key, computing it with loader when missing or expired
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Snapshot<T> get(String key, Supplier<T> loader) {
+        long currentGeneration = generation.get();
+        Snapshot<?> cached;
+        synchronized (snapshots) {
+            cached = snapshots.get(key);
+        }
+        if (cached != null && cached.getGeneration() == currentGeneration && !cached.isExpired(ttl)) {
+            hits.increment();
+            return (Snapshot<T>) cached;
+        }
+
+        misses.increment();
+        Snapshot<T> snapshot = new Snapshot<>(loader.get(), Instant.now(), currentGeneration);
+        synchronized (snapshots) {
+            // Skip publishing if a write committed while the figures were being computed
+            if (generation.get() == currentGeneration) {
+                snapshots.put(key, snapshot);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Drop all snapshots immediately
+     */
+    public void invalidate() {
+        synchronized (snapshots) {
+            generation.incrementAndGet();
+            snapshots.clear();
+        }
+        log.debug("Analytics snapshot invalidated");
+    }
+
+    /**
+     * Drop all snapshots once the current transaction commits (immediately when there is none),
+     * so a concurrent reader cannot re-cache the pre-commit figures
+     */
+    public void invalidateAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate();
+            }
+        });
+    }
+
+    public long getHitCount() {
+        return (long) hits.count();
+    }
+
+    public long getMissCount() {
+        return (long) misses.count();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Snapshot<T> {
+        private final T value;
+        private final Instant computedAt;
+        private final long generation;
+
+        public long getAgeSeconds() {
+            return Duration.between(computedAt, Instant.now()).getSeconds();
+        }
+
+        boolean isExpired(Duration ttl) {
+            return computedAt.plus(ttl).isBefore(Instant.now());
+        }
+    }
+}
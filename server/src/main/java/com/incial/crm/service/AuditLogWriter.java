@@ -0,0 +1,456 @@
+package com.incial.crm.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.incial.crm.entity.ProjectActivityLog;
+import com.incial.crm.entity.ProjectStageHistory;
+import com.incial.crm.repository.ProjectActivityLogRepository;
+import com.incial.crm.repository.ProjectStageHistoryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes project activity logs and stage history off the request path.
+ * Events are held until the business transaction commits (and dropped if it rolls back), then queued
+ * and inserted in batches by a dedicated writer thread. When the queue is full the caller writes its
+ * own events, and events that cannot be written are appended to an NDJSON spool file that is
+ * replayed once the database is reachable again.
+ *
+ * A batch the database rejects for any other reason than an outage is retried one event at a time, so a single
+ * bad event never holds back the rest; events that still fail go to a dead-letter file that is not replayed.
+ *
+ * A replay works on a copy moved aside (.replaying) and records how far it got after every flushed batch, so a
+ * replay cut short by an error or a crash resumes where it stopped instead of inserting rows twice.
+ */
+@Component
+@Slf4j
+public class AuditLogWriter {
+
+    private final ProjectActivityLogRepository activityLogRepository;
+    private final ProjectStageHistoryRepository stageHistoryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    private final BlockingQueue<AuditEvent> queue;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Duration offerTimeout;
+    private final Duration spoolReplayInterval;
+    private final Path spoolFile;
+    private final Path deadLetterFile;
+    private final Path replayingFile;
+    private final Path replayPositionFile;
+
+    private final Timer flushTimer;
+    private final Counter spooledEvents;
+    private final Counter deadLetteredEvents;
+    private final Counter callerRuns;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "audit-log-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean running = true;
+    private Instant lastReplayAttempt = Instant.EPOCH;
+
+    public AuditLogWriter(ProjectActivityLogRepository activityLogRepository,
+                          ProjectStageHistoryRepository stageHistoryRepository,
+                          PlatformTransactionManager transactionManager,
+                          ObjectMapper objectMapper,
+                          MeterRegistry meterRegistry,
+                          @Value("${audit.writer.queue-capacity:10000}") int queueCapacity,
+                          @Value("${audit.writer.batch-size:200}") int batchSize,
+                          @Value("${audit.writer.flush-interval:200ms}") Duration flushInterval,
+                          @Value("${audit.writer.offer-timeout:50ms}") Duration offerTimeout,
+                          @Value("${audit.writer.spool-replay-interval:60s}") Duration spoolReplayInterval,
+                          @Value("${audit.writer.spool-file:logs/audit-spool.ndjson}") String spoolFile,
+                          @Value("${audit.writer.dead-letter-file:logs/audit-dead-letter.ndjson}") String deadLetterFile) {
+        this.activityLogRepository = activityLogRepository;
+        this.stageHistoryRepository = stageHistoryRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Always write in a transaction of our own, also when called from an afterCommit callback
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.offerTimeout = offerTimeout;
+        this.spoolReplayInterval = spoolReplayInterval;
+        this.spoolFile = Paths.get(spoolFile);
+        this.deadLetterFile = Paths.get(deadLetterFile);
+        this.replayingFile = this.spoolFile.resolveSibling(this.spoolFile.getFileName() + ".replaying");
+        this.replayPositionFile = this.spoolFile.resolveSibling(this.spoolFile.getFileName() + ".replaying.position");
+
+        Gauge.builder("audit.writer.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+        this.flushTimer = Timer.builder("audit.writer.flush").register(meterRegistry);
+        this.spooledEvents = Counter.builder("audit.writer.spooled").register(meterRegistry);
+        this.deadLetteredEvents = Counter.builder("audit.writer.dead.lettered").register(meterRegistry);
+        this.callerRuns = Counter.builder("audit.writer.caller.runs").register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        executor.execute(this::drainLoop);
+    }
+
+    /**
+     * Record an activity log entry once the current transaction commits
+     */
+    public void recordActivity(ProjectActivityLog activity) {
+        if (activity.getTimestamp() == null) {
+            activity.setTimestamp(LocalDateTime.now());
+        }
+        submitAfterCommit(List.of(new AuditEvent(activity, null)));
+    }
+
+    /**
+     * Record a stage history entry once the current transaction commits
+     */
+    public void recordStageChange(ProjectStageHistory stageChange) {
+        if (stageChange.getTimestamp() == null) {
+            stageChange.setTimestamp(LocalDateTime.now());
+        }
+        submitAfterCommit(List.of(new AuditEvent(null, stageChange)));
+    }
+
+    /**
+     * Record many entries at once; they are queued together once the current transaction commits
+     */
+    public void recordAll(List<ProjectActivityLog> activities, List<ProjectStageHistory> stageChanges) {
+        LocalDateTime now = LocalDateTime.now();
+        List<AuditEvent> events = new ArrayList<>(activities.size() + stageChanges.size());
+        for (ProjectActivityLog activity : activities) {
+            if (activity.getTimestamp() == null) {
+                activity.setTimestamp(now);
+            }
+            events.add(new AuditEvent(activity, null));
+        }
+        for (ProjectStageHistory stageChange : stageChanges) {
+            if (stageChange.getTimestamp() == null) {
+                stageChange.setTimestamp(now);
+            }
+            events.add(new AuditEvent(null, stageChange));
+        }
+        submitAfterCommit(events);
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    private void submitAfterCommit(List<AuditEvent> events) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            events.forEach(this::submit);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                events.forEach(AuditLogWriter.this::submit);
+            }
+        });
+    }
+
+    private void submit(AuditEvent event) {
+        try {
+            if (running && queue.offer(event, offerTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Queue is full (or shutting down): the caller pays for its own write
+        callerRuns.increment();
+        flush(List.of(event));
+    }
+
+    private void drainLoop() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                AuditEvent first = queue.poll(flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    replaySpoolIfDue();
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                log.error("Audit writer loop failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Insert a batch in one transaction. If the database is unreachable the batch is spooled for replay;
+     * if it rejects the batch, the events are retried one by one and only the failing ones are dead-lettered.
+     */
+    private void flush(List<AuditEvent> batch) {
+        RuntimeException failure = insert(batch);
+        if (failure == null) {
+            return;
+        }
+        if (isOutage(failure)) {
+            log.error("Failed to write {} audit events, spooling to {}", batch.size(), spoolFile, failure);
+            append(spoolFile, batch);
+            spooledEvents.increment(batch.size());
+            return;
+        }
+
+        log.warn("Batch of {} audit events rejected, retrying one by one: {}", batch.size(), failure.getMessage());
+        List<AuditEvent> outage = new ArrayList<>();
+        List<AuditEvent> rejected = new ArrayList<>();
+        for (AuditEvent event : batch) {
+            RuntimeException eventFailure = batch.size() == 1 ? failure : insert(List.of(event));
+            if (eventFailure == null) {
+                continue;
+            }
+            if (isOutage(eventFailure)) {
+                outage.add(event);
+            } else {
+                log.error("Audit event rejected, moving it to {}: {}", deadLetterFile, event, eventFailure);
+                rejected.add(event);
+            }
+        }
+        if (!outage.isEmpty()) {
+            append(spoolFile, outage);
+            spooledEvents.increment(outage.size());
+        }
+        if (!rejected.isEmpty()) {
+            append(deadLetterFile, rejected);
+            deadLetteredEvents.increment(rejected.size());
+        }
+    }
+
+    /**
+     * @return null when the events were written, otherwise the failure
+     */
+    private RuntimeException insert(List<AuditEvent> events) {
+        List<ProjectActivityLog> activities = new ArrayList<>();
+        List<ProjectStageHistory> stageChanges = new ArrayList<>();
+        for (AuditEvent event : events) {
+            if (event.getActivity() != null) {
+                activities.add(event.getActivity());
+            } else if (event.getStageChange() != null) {
+                stageChanges.add(event.getStageChange());
+            }
+        }
+
+        try {
+            flushTimer.record(() -> transactionTemplate.executeWithoutResult(status -> {
+                activityLogRepository.saveAll(activities);
+                stageHistoryRepository.saveAll(stageChanges);
+            }));
+            return null;
+        } catch (RuntimeException e) {
+            // Clear ids assigned by the failed transaction so a retry inserts fresh rows
+            activities.forEach(activity -> activity.setId(null));
+            stageChanges.forEach(stageChange -> stageChange.setId(null));
+            return e;
+        }
+    }
+
+    /**
+     * Failures worth replaying later (database down, pool exhausted) as opposed to a row the database rejects
+     */
+    private static boolean isOutage(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof CannotCreateTransactionException;
+    }
+
+    private void append(Path file, List<AuditEvent> events) {
+        List<String> lines = new ArrayList<>(events.size());
+        try {
+            for (AuditEvent event : events) {
+                lines.add(objectMapper.writeValueAsString(event));
+            }
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize {} audit events for {}, they are lost", events.size(), file, e);
+            return;
+        }
+        appendLines(file, lines);
+    }
+
+    private synchronized void appendLines(Path file, List<String> lines) {
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (String line : lines) {
+                    writer.write(line);
+                    writer.newLine();
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to write {} audit events to {}, they are lost", lines.size(), file, e);
+        }
+    }
+
+    /**
+     * Re-insert spooled events; the spool is moved aside first so failures append to a fresh file.
+     * A file left aside by an earlier replay (including before a restart) is finished first and never overwritten.
+     */
+    void replaySpoolIfDue() {
+        Instant now = Instant.now();
+        if (now.isBefore(lastReplayAttempt.plus(spoolReplayInterval))
+                || (!Files.exists(replayingFile) && !Files.exists(spoolFile))) {
+            return;
+        }
+        lastReplayAttempt = now;
+
+        try {
+            if (Files.exists(replayingFile)) {
+                replay();
+            }
+            if (Files.exists(spoolFile)) {
+                synchronized (this) {
+                    Files.move(spoolFile, replayingFile);
+                }
+                replay();
+            }
+        } catch (IOException e) {
+            log.error("Failed to replay audit spool {}, resuming at the next attempt", replayingFile, e);
+        }
+    }
+
+    /**
+     * Replay the file moved aside, skipping the lines already flushed by an interrupted replay.
+     * Lines that cannot be read are dead-lettered as they are.
+     */
+    private void replay() throws IOException {
+        long position = readReplayPosition();
+        long lineNumber = 0;
+        int replayed = 0;
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        try (BufferedReader reader = Files.newBufferedReader(replayingFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber <= position || line.isBlank()) {
+                    continue;
+                }
+                AuditEvent event = readEvent(line);
+                if (event == null) {
+                    log.error("Unreadable audit event at {}:{}, moving it to {}", replayingFile, lineNumber, deadLetterFile);
+                    appendLines(deadLetterFile, List.of(line));
+                    deadLetteredEvents.increment();
+                    continue;
+                }
+                batch.add(event);
+                if (batch.size() == batchSize) {
+                    flush(batch);
+                    replayed += batch.size();
+                    batch = new ArrayList<>(batchSize);
+                    writeReplayPosition(lineNumber);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            flush(batch);
+            replayed += batch.size();
+        }
+        Files.delete(replayingFile);
+        Files.deleteIfExists(replayPositionFile);
+        log.info("Replayed {} spooled audit events", replayed);
+    }
+
+    private AuditEvent readEvent(String line) {
+        try {
+            AuditEvent event = objectMapper.readValue(line, AuditEvent.class);
+            return event != null && (event.getActivity() != null || event.getStageChange() != null) ? event : null;
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Lines of the .replaying file already flushed (0 when the replay has not started)
+     */
+    private long readReplayPosition() throws IOException {
+        if (!Files.exists(replayPositionFile)) {
+            return 0;
+        }
+        return Long.parseLong(Files.readString(replayPositionFile, StandardCharsets.UTF_8).trim());
+    }
+
+    private void writeReplayPosition(long lineNumber) throws IOException {
+        // Write then rename, so a crash leaves either the old or the new position, never a partial one
+        Path next = replayPositionFile.resolveSibling(replayPositionFile.getFileName() + ".tmp");
+        Files.writeString(next, Long.toString(lineNumber), StandardCharsets.UTF_8);
+        Files.move(next, replayPositionFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+            List<AuditEvent> remaining = new ArrayList<>();
+            queue.drainTo(remaining);
+            if (!remaining.isEmpty()) {
+                append(spoolFile, remaining);
+                spooledEvents.increment(remaining.size());
+            }
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class AuditEvent {
+        private ProjectActivityLog activity;
+        private ProjectStageHistory stageChange;
+    }
+}
@@ -42,6 +42,7 @@ public class AuthService {
     private final AuthenticationManager authenticationManager;
     private final PasswordEncoder passwordEncoder;
     private final OtpService otpService;
+    private final ReferenceDataCache referenceDataCache;
 
     @Value("${google.client.id}")
     private String googleClientId;
@@ -174,6 +175,7 @@ public class AuthService {
             }
             if (needsUpdate) {
                 userRepository.save(user);
+                referenceDataCache.evictUserAfterCommit(user.getEmail());
             }
 
             String token = jwtUtil.generateToken(user.getEmail(),user.getRole());
@@ -255,6 +257,7 @@ public class AuthService {
         );
         // no save needed if User is managed, but save is fine
         userRepository.save(user);
+        referenceDataCache.evictUserAfterCommit(user.getEmail());
 
 
 
@@ -17,6 +17,7 @@ public class CrmService {
 
     private final CrmEntryRepository crmEntryRepository;
     private final UserService userService;
+    private final ReferenceDataCache referenceDataCache;
 
     public Map<String, List<CrmEntryDto>> getAllEntries() {
         List<CrmEntry> entries = crmEntryRepository.findAll();
@@ -41,6 +42,7 @@ public class CrmService {
         
         updateEntityFromDto(entry, dto);
         CrmEntry updated = crmEntryRepository.save(entry);
+        referenceDataCache.evictCrmEntryAfterCommit(id);
         return convertToDto(updated);
     }
 
@@ -49,12 +51,12 @@ public class CrmService {
             throw new RuntimeException("CRM Entry not found with id: " + id);
         }
         crmEntryRepository.deleteById(id);
+        referenceDataCache.evictCrmEntryAfterCommit(id);
     }
 
     public CrmEntryDto getCrmDetails(Long id) {
-        CrmEntry entry = crmEntryRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("CRM Entry not found with id: " + id));
-        return convertToDto(entry);
+        return referenceDataCache.getCrmEntry(id, key -> convertToDto(crmEntryRepository.findById(key)
+                .orElseThrow(() -> new RuntimeException("CRM Entry not found with id: " + key))));
     }
 
     public CrmEntryDto getClientCrmDetails(String userEmail) {
@@ -1,6 +1,6 @@
 package com.incial.crm.service;
 
-import com.incial.crm.entity.User;
+import com.incial.crm.dto.UserSnapshot;
 import com.incial.crm.repository.UserRepository;
 import com.incial.crm.security.CustomUserDetails;
 import lombok.RequiredArgsConstructor;
@@ -14,10 +14,11 @@ import org.springframework.stereotype.Service;
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final ReferenceDataCache referenceDataCache;
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
+        UserSnapshot user = referenceDataCache.getUser(email, userRepository::findByEmail)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
         return new CustomUserDetails(user);
     }
@@ -0,0 +1,72 @@
+package com.incial.crm.service;
+
+import com.incial.crm.repository.ProjectRepository;
+import com.incial.crm.repository.ProjectRepository.PaymentTotalsDrift;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background check of the payment totals stored on projects (amountReceived, pendingAmount)
+ * against the payment_transactions ledger. Drift is only reported, never repaired:
+ * the ledger stays the source of truth and a mismatch points at a write path that skipped recordPayment.
+ */
+@Component
+@Slf4j
+public class PaymentTotalsReconciler {
+
+    private final ProjectRepository projectRepository;
+    private final int maxLoggedProjects;
+
+    // Projects found out of step by the last run, exported as a gauge
+    private final AtomicInteger driftedProjects = new AtomicInteger();
+
+    public PaymentTotalsReconciler(ProjectRepository projectRepository,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${payments.reconciler.max-logged:50}") int maxLoggedProjects) {
+        this.projectRepository = projectRepository;
+        this.maxLoggedProjects = maxLoggedProjects;
+        Gauge.builder("payments.totals.drifted_projects", driftedProjects, AtomicInteger::get)
+                .description("Projects whose stored payment totals disagree with the ledger")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${payments.reconciler.cron:0 30 2 * * *}")
+    public void scheduledReconcile() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            log.error("Error during payment totals reconciliation", e);
+        }
+    }
+
+    /**
+     * Compare stored totals with the ledger and log every project that drifted
+     *
+     * @return the drifted projects
+     */
+    @Transactional(readOnly = true)
+    public List<PaymentTotalsDrift> reconcile() {
+        List<PaymentTotalsDrift> drift = projectRepository.findPaymentTotalsDrift();
+        driftedProjects.set(drift.size());
+
+        if (drift.isEmpty()) {
+            log.info("Payment totals reconciled, no drift found");
+            return drift;
+        }
+
+        log.warn("Payment totals drift found on {} project(s)", drift.size());
+        drift.stream().limit(maxLoggedProjects).forEach(row ->
+                log.warn("Project {}: stored received {} vs ledger {}, stored pending {} for invoice {}",
+                        row.getProjectId(), row.getStoredReceived(), row.getLedgerReceived(),
+                        row.getStoredPending(), row.getInvoiceAmount()));
+        return drift;
+    }
+}
@@ -0,0 +1,188 @@
+package com.incial.crm.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.incial.crm.repository.ProjectExportRow;
+import com.incial.crm.repository.ProjectRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Streams every project as NDJSON or CSV.
+ * Rows are read through a database cursor inside a read-only transaction and written straight to
+ * the response, so memory use does not grow with the number of projects.
+ */
+@Service
+@Slf4j
+public class ProjectExportService {
+
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_NDJSON = "ndjson";
+
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+    private static final int FLUSH_EVERY_ROWS = 1000;
+
+    private static final List<ExportColumn> COLUMNS = List.of(
+            column("id", ProjectExportRow::getId),
+            column("school", ProjectExportRow::getSchool),
+            column("contactPerson", ProjectExportRow::getContactPerson),
+            column("contactNumber", ProjectExportRow::getContactNumber),
+            column("place", ProjectExportRow::getPlace),
+            column("district", ProjectExportRow::getDistrict),
+            column("region", ProjectExportRow::getRegion),
+            column("projectName", ProjectExportRow::getProjectName),
+            column("parentCompany", ProjectExportRow::getParentCompany),
+            column("executiveRemarks", ProjectExportRow::getExecutiveRemarks),
+            column("lastContact", ProjectExportRow::getLastContact),
+            column("nextContact", ProjectExportRow::getNextContact),
+            column("createdDate", ProjectExportRow::getCreatedDate),
+            column("createdBy", ProjectExportRow::getCreatedBy),
+            column("currentStage", ProjectExportRow::getCurrentStage),
+            column("previousStage", ProjectExportRow::getPreviousStage),
+            column("stageChangeTimestamp", ProjectExportRow::getStageChangeTimestamp),
+            column("stageChangedBy", ProjectExportRow::getStageChangedBy),
+            column("currentOwnerRole", ProjectExportRow::getCurrentOwnerRole),
+            column("projectValue", ProjectExportRow::getProjectValue),
+            column("invoiceAmount", ProjectExportRow::getInvoiceAmount),
+            column("pendingDelivery", ProjectExportRow::getPendingDelivery),
+            column("quotationRemarks", ProjectExportRow::getQuotationRemarks),
+            column("expectedDeliveryDate", ProjectExportRow::getExpectedDeliveryDate),
+            column("salesRemarks", ProjectExportRow::getSalesRemarks),
+            column("salesUpdatedTimestamp", ProjectExportRow::getSalesUpdatedTimestamp),
+            column("paymentStatus", ProjectExportRow::getPaymentStatus),
+            column("amountReceived", ProjectExportRow::getAmountReceived),
+            column("pendingAmount", ProjectExportRow::getPendingAmount),
+            column("paymentDate", ProjectExportRow::getPaymentDate),
+            column("paymentRemarks", ProjectExportRow::getPaymentRemarks),
+            column("paymentProofUrl", ProjectExportRow::getPaymentProofUrl),
+            column("accountsUpdatedTimestamp", ProjectExportRow::getAccountsUpdatedTimestamp),
+            column("installationStatus", ProjectExportRow::getInstallationStatus),
+            column("installationRemarks", ProjectExportRow::getInstallationRemarks),
+            column("completionDate", ProjectExportRow::getCompletionDate),
+            column("installationUpdatedTimestamp", ProjectExportRow::getInstallationUpdatedTimestamp),
+            column("lastUpdatedBy", ProjectExportRow::getLastUpdatedBy),
+            column("lastUpdatedAt", ProjectExportRow::getLastUpdatedAt),
+            column("isLocked", ProjectExportRow::getIsLocked),
+            column("totalReceived", ProjectExportRow::getTotalReceived)
+    );
+
+    private final ProjectRepository projectRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ProjectExportService(ProjectRepository projectRepository,
+                                ObjectMapper objectMapper,
+                                PlatformTransactionManager transactionManager) {
+        this.projectRepository = projectRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public static boolean isSupportedFormat(String format) {
+        return FORMAT_CSV.equals(format) || FORMAT_NDJSON.equals(format);
+    }
+
+    /**
+     * Write all projects to output in the given format; output is not closed
+     */
+    public void exportProjects(String format, OutputStream output) throws IOException {
+        BufferedOutputStream out = new BufferedOutputStream(output, OUTPUT_BUFFER_SIZE);
+        boolean csv = FORMAT_CSV.equals(format);
+        if (csv) {
+            writeCsvLine(out, COLUMNS.stream().map(ExportColumn::getName).collect(Collectors.toList()));
+        }
+
+        long[] count = {0};
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<ProjectExportRow> rows = projectRepository.streamForExport()) {
+                    rows.forEach(row -> {
+                        try {
+                            if (csv) {
+                                writeCsvLine(out, COLUMNS.stream().map(c -> formatCsvValue(c.getValue().apply(row))).collect(Collectors.toList()));
+                            } else {
+                                writeJsonLine(out, row);
+                            }
+                            if (++count[0] % FLUSH_EVERY_ROWS == 0) {
+                                out.flush();
+                            }
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // Usually the client went away mid-download
+            throw e.getCause();
+        }
+        out.flush();
+        log.info("Exported {} projects as {}", count[0], format);
+    }
+
+    private void writeJsonLine(OutputStream out, ProjectExportRow row) throws IOException {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (ExportColumn column : COLUMNS) {
+            values.put(column.getName(), column.getValue().apply(row));
+        }
+        out.write(objectMapper.writeValueAsBytes(values));
+        out.write('\n');
+    }
+
+    private void writeCsvLine(OutputStream out, List<String> values) throws IOException {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            line.append(escapeCsv(values.get(i)));
+        }
+        line.append("\r\n");
+        out.write(line.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String formatCsvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        return value.toString();
+    }
+
+    private static String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static ExportColumn column(String name, Function<ProjectExportRow, Object> value) {
+        return new ExportColumn(name, value);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class ExportColumn {
+        private final String name;
+        private final Function<ProjectExportRow, Object> value;
+    }
+}
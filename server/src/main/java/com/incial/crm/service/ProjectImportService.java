@@ -0,0 +1,398 @@
+package com.incial.crm.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.incial.crm.dto.CreateProjectRequest;
+import com.incial.crm.dto.ProjectImportResultDto;
+import com.incial.crm.entity.Project;
+import com.incial.crm.entity.ProjectActivityLog;
+import com.incial.crm.entity.ProjectStageHistory;
+import com.incial.crm.exception.DuplicateContactNumberException;
+import com.incial.crm.repository.ProjectRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk lead import from CSV or NDJSON.
+ * The upload is read record by record and imported in chunks: one duplicate lookup, one batched
+ * insert and one bulk audit hand-off per chunk. Each chunk commits on its own; a chunk the database
+ * rejects is split and retried, so a bad row never discards the other rows.
+ */
+@Service
+@Slf4j
+public class ProjectImportService {
+
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_NDJSON = "ndjson";
+
+    private static final int IMPORT_CHUNK_SIZE = 500;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final String STAGE_LEAD = "LEAD";
+    private static final String ROLE_EXECUTIVE = "ROLE_EXECUTIVE";
+
+    // CSV columns by normalized header (lower case, letters and digits only)
+    private static final Map<String, BiConsumer<CreateProjectRequest, String>> CSV_COLUMNS = Map.of(
+            "school", CreateProjectRequest::setSchool,
+            "contactperson", CreateProjectRequest::setContactPerson,
+            "contactnumber", CreateProjectRequest::setContactNumber,
+            "place", CreateProjectRequest::setPlace,
+            "district", CreateProjectRequest::setDistrict,
+            "region", CreateProjectRequest::setRegion,
+            "projectname", CreateProjectRequest::setProjectName,
+            "parentcompany", CreateProjectRequest::setParentCompany,
+            "executiveremarks", CreateProjectRequest::setExecutiveRemarks);
+
+    private final ProjectRepository projectRepository;
+    private final AuditLogWriter auditLogWriter;
+    private final AnalyticsSnapshotCache analyticsSnapshotCache;
+    private final ProjectTypeaheadIndex typeaheadIndex;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+
+    public ProjectImportService(ProjectRepository projectRepository,
+                                AuditLogWriter auditLogWriter,
+                                AnalyticsSnapshotCache analyticsSnapshotCache,
+                                ProjectTypeaheadIndex typeaheadIndex,
+                                ObjectMapper objectMapper,
+                                Validator validator,
+                                PlatformTransactionManager transactionManager) {
+        this.projectRepository = projectRepository;
+        this.auditLogWriter = auditLogWriter;
+        this.analyticsSnapshotCache = analyticsSnapshotCache;
+        this.typeaheadIndex = typeaheadIndex;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Import leads from reader; format is FORMAT_CSV or FORMAT_NDJSON
+     */
+    public ProjectImportResultDto importProjects(BufferedReader reader, String format,
+                                                 String createdBy, String createdByRole) throws IOException {
+        RowSource source = FORMAT_CSV.equals(format) ? csvSource(reader) : ndjsonSource(reader);
+        ImportReport report = new ImportReport();
+        Set<String> seenContactNumbers = new HashSet<>();
+
+        List<ImportRow> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        ImportRow row;
+        while ((row = source.next()) != null) {
+            chunk.add(row);
+            if (chunk.size() == IMPORT_CHUNK_SIZE) {
+                importChunk(chunk, seenContactNumbers, createdBy, createdByRole, report);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, seenContactNumbers, createdBy, createdByRole, report);
+        }
+
+        log.info("Project import by {}: {} rows, {} imported, {} failed",
+                createdBy, report.totalRows, report.imported, report.failed);
+        return report.toDto();
+    }
+
+    private void importChunk(List<ImportRow> chunk, Set<String> seenContactNumbers,
+                             String createdBy, String createdByRole, ImportReport report) {
+        report.totalRows += chunk.size();
+
+        // Row-level checks: parse errors, validation and duplicates within the upload
+        List<ImportRow> candidates = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            if (row.error != null) {
+                report.reject(row, row.error);
+                continue;
+            }
+            String violations = validator.validate(row.request).stream()
+                    .map(ConstraintViolation::getMessage)
+                    .collect(Collectors.joining("; "));
+            if (!violations.isEmpty()) {
+                report.reject(row, violations);
+                continue;
+            }
+            String normalized = row.normalizedContactNumber();
+            if (normalized != null && !seenContactNumbers.add(normalized)) {
+                report.reject(row, "Duplicate contact number in upload");
+                continue;
+            }
+            candidates.add(row);
+        }
+
+        // Duplicates against existing projects: one set query for the whole chunk
+        Set<String> contactNumbers = candidates.stream()
+                .map(ImportRow::normalizedContactNumber)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<String> existing = contactNumbers.isEmpty()
+                ? Collections.emptySet()
+                : new HashSet<>(projectRepository.findExistingNormalizedContactNumbers(contactNumbers));
+
+        List<ImportRow> accepted = new ArrayList<>(candidates.size());
+        for (ImportRow row : candidates) {
+            if (row.normalizedContactNumber() != null && existing.contains(row.normalizedContactNumber())) {
+                reject(row, "A project with this contact number already exists", seenContactNumbers, report);
+            } else {
+                accepted.add(row);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        insertRows(accepted, seenContactNumbers, createdBy, createdByRole, report);
+    }
+
+    /**
+     * Reject a row that passed the in-upload duplicate check; its number is released so a later row with the
+     * same number is checked on its own rather than reported as an in-upload duplicate
+     */
+    private static void reject(ImportRow row, String message, Set<String> seenContactNumbers, ImportReport report) {
+        if (row.normalizedContactNumber() != null) {
+            seenContactNumbers.remove(row.normalizedContactNumber());
+        }
+        report.reject(row, message);
+    }
+
+    /**
+     * Insert the rows in one transaction; if that fails, split them in halves and retry each half,
+     * so only the rows that fail on their own are rejected
+     */
+    private void insertRows(List<ImportRow> rows, Set<String> seenContactNumbers,
+                            String createdBy, String createdByRole, ImportReport report) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> insertChunk(rows, createdBy, createdByRole));
+            report.imported += rows.size();
+        } catch (RuntimeException e) {
+            if (rows.size() > 1) {
+                int middle = rows.size() / 2;
+                insertRows(rows.subList(0, middle), seenContactNumbers, createdBy, createdByRole, report);
+                insertRows(rows.subList(middle, rows.size()), seenContactNumbers, createdBy, createdByRole, report);
+                return;
+            }
+            // e.g. a number taken by a concurrent create between the lookup and the insert
+            ImportRow row = rows.get(0);
+            log.warn("Project import row {} failed: {}", row.number, e.getMessage());
+            reject(row, DuplicateContactNumberException.isContactNumberConflict(e)
+                    ? "A project with this contact number already exists"
+                    : "Import failed: " + e.getMessage(), seenContactNumbers, report);
+        }
+    }
+
+    private void insertChunk(List<ImportRow> rows, String createdBy, String createdByRole) {
+        List<Project> projects = rows.stream()
+                .map(row -> toProject(row.request, row.contactNumber(), createdBy))
+                .collect(Collectors.toList());
+        projectRepository.saveAll(projects);
+
+        List<ProjectActivityLog> activities = new ArrayList<>(projects.size());
+        List<ProjectStageHistory> stageChanges = new ArrayList<>(projects.size());
+        for (Project project : projects) {
+            activities.add(ProjectActivityLog.builder()
+                    .projectId(project.getId())
+                    .actionType("CREATED")
+                    .performedBy(createdBy)
+                    .performedByRole(createdByRole)
+                    .remarks("Project imported")
+                    .build());
+            stageChanges.add(ProjectStageHistory.builder()
+                    .projectId(project.getId())
+                    .toStage(STAGE_LEAD)
+                    .changedBy(createdBy)
+                    .changedByRole(createdByRole)
+                    .remarks("Initial stage")
+                    .isSystemTriggered(false)
+                    .build());
+        }
+        auditLogWriter.recordAll(activities, stageChanges);
+        analyticsSnapshotCache.invalidateAfterCommit();
+        typeaheadIndex.indexAfterCommit(projects);
+    }
+
+    private Project toProject(CreateProjectRequest request, String contactNumber, String createdBy) {
+        return Project.builder()
+                .school(request.getSchool().trim())
+                .contactPerson(request.getContactPerson())
+                .contactNumber(contactNumber)
+                .place(request.getPlace())
+                .district(request.getDistrict())
+                .region(request.getRegion())
+                .projectName(request.getProjectName())
+                .parentCompany(request.getParentCompany())
+                .executiveRemarks(request.getExecutiveRemarks())
+                .createdBy(createdBy)
+                .currentStage(STAGE_LEAD)
+                .currentOwnerRole(ROLE_EXECUTIVE)
+                .isLocked(false)
+                .build();
+    }
+
+    private RowSource ndjsonSource(BufferedReader reader) {
+        long[] rowNumber = {0};
+        return () -> {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                rowNumber[0]++;
+                try {
+                    JsonNode node = objectMapper.readTree(line);
+                    if (!node.isObject()) {
+                        // e.g. a bare null, which would otherwise bind to no request at all
+                        return new ImportRow(rowNumber[0], null, "Each line must be a JSON object");
+                    }
+                    return new ImportRow(rowNumber[0], objectMapper.treeToValue(node, CreateProjectRequest.class), null);
+                } catch (JsonProcessingException e) {
+                    return new ImportRow(rowNumber[0], null, "Invalid JSON: " + e.getOriginalMessage());
+                }
+            }
+            return null;
+        };
+    }
+
+    private RowSource csvSource(BufferedReader reader) throws IOException {
+        List<String> header = readCsvRecord(reader);
+        if (header == null) {
+            return () -> null;
+        }
+        List<BiConsumer<CreateProjectRequest, String>> setters = new ArrayList<>(header.size());
+        for (String column : header) {
+            String normalized = column.replace("\uFEFF", "").toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+            setters.add(CSV_COLUMNS.get(normalized)); // unknown columns are ignored
+        }
+        if (!setters.contains(CSV_COLUMNS.get("school"))) {
+            throw new IllegalArgumentException("CSV header must include a school column");
+        }
+
+        long[] rowNumber = {0};
+        return () -> {
+            List<String> record;
+            while ((record = readCsvRecord(reader)) != null) {
+                if (record.size() == 1 && record.get(0).isBlank()) {
+                    continue;
+                }
+                rowNumber[0]++;
+                CreateProjectRequest request = new CreateProjectRequest();
+                for (int i = 0; i < Math.min(record.size(), setters.size()); i++) {
+                    String value = record.get(i).trim();
+                    if (setters.get(i) != null && !value.isEmpty()) {
+                        setters.get(i).accept(request, value);
+                    }
+                }
+                return new ImportRow(rowNumber[0], request, null);
+            }
+            return null;
+        };
+    }
+
+    /**
+     * Read one RFC 4180 record (quoted fields may contain commas, doubled quotes and line breaks).
+     * Returns null at end of input.
+     */
+    private static List<String> readCsvRecord(BufferedReader reader) throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean inQuotes = false;
+        boolean readAny = false;
+        int c;
+        while ((c = reader.read()) != -1) {
+            readAny = true;
+            char ch = (char) c;
+            if (inQuotes) {
+                if (ch == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        inQuotes = false;
+                        reader.reset();
+                    }
+                } else {
+                    field.append(ch);
+                }
+            } else if (ch == '"') {
+                inQuotes = true;
+            } else if (ch == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (ch == '\n') {
+                fields.add(field.toString());
+                return fields;
+            } else if (ch != '\r') {
+                field.append(ch);
+            }
+        }
+        if (!readAny) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    @FunctionalInterface
+    private interface RowSource {
+        ImportRow next() throws IOException;
+    }
+
+    @AllArgsConstructor
+    private static class ImportRow {
+        private final long number;
+        private final CreateProjectRequest request;
+        private final String error;
+
+        String contactNumber() {
+            if (request == null || request.getContactNumber() == null) {
+                return null;
+            }
+            String trimmed = request.getContactNumber().trim();
+            return trimmed.isEmpty() ? null : trimmed;
+        }
+
+        String normalizedContactNumber() {
+            return request == null ? null : Project.normalizeContactNumber(request.getContactNumber());
+        }
+    }
+
+    private static class ImportReport {
+        private long totalRows;
+        private long imported;
+        private long failed;
+        private final List<ProjectImportResultDto.RowError> errors = new ArrayList<>();
+
+        void reject(ImportRow row, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(ProjectImportResultDto.RowError.builder()
+                        .row(row.number)
+                        .contactNumber(row.contactNumber())
+                        .message(message)
+                        .build());
+            }
+        }
+
+        ProjectImportResultDto toDto() {
+            errors.sort(Comparator.comparingLong(ProjectImportResultDto.RowError::getRow));
+            return ProjectImportResultDto.builder()
+                    .totalRows(totalRows)
+                    .imported(imported)
+                    .failed(failed)
+                    .errors(errors)
+                    .errorsTruncated(failed > errors.size())
+                    .build();
+        }
+    }
+}
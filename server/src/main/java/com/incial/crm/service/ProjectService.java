@@ -6,31 +6,57 @@ import com.incial.crm.entity.Project;
 import com.incial.crm.entity.ProjectActivityLog;
 import com.incial.crm.entity.ProjectStageHistory;
 import com.incial.crm.enums.ExecutiveProjectStatus;
+import com.incial.crm.exception.DuplicateContactNumberException;
+import com.incial.crm.exception.ProjectVersionMismatchException;
 import com.incial.crm.repository.PaymentTransactionRepository;
-import com.incial.crm.repository.ProjectActivityLogRepository;
 import com.incial.crm.repository.ProjectRepository;
-import com.incial.crm.repository.ProjectStageHistoryRepository;
+import com.incial.crm.repository.ProjectSummaryView;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
+@Slf4j
 public class ProjectService {
 
     @Autowired
     private ProjectRepository projectRepository;
 
     @Autowired
-    private ProjectActivityLogRepository activityLogRepository;
-
-    @Autowired
-    private ProjectStageHistoryRepository stageHistoryRepository;
+    private AuditLogWriter auditLogWriter;
     
     @Autowired
     private PaymentTransactionRepository paymentTransactionRepository;
@@ -38,6 +64,21 @@ public class ProjectService {
     @Autowired(required = false)
     private AlertService alertService;
 
+    @Autowired(required = false)
+    private AnalyticsSnapshotCache analyticsSnapshotCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired(required = false)
+    private ProjectTypeaheadIndex typeaheadIndex;
+
+    // Resolved on first search: PostgreSQL with the pg_trgm extension installed
+    private volatile Boolean trigramSearchAvailable;
+
     // Stage definitions
     private static final String STAGE_LEAD = "LEAD";
     private static final String STAGE_ON_PROGRESS = "ON_PROGRESS";
@@ -56,17 +97,27 @@ public class ProjectService {
     private static final String ROLE_INSTALLATION = "ROLE_INSTALLATION";
     private static final String ROLE_ADMIN = "ROLE_ADMIN";
     private static final String ROLE_SUPER_ADMIN = "ROLE_SUPER_ADMIN";
+    private static final String SYSTEM_USER = "SYSTEM";
+
+    // System follow-up transitions retry on a concurrent edit; user updates never do
+    private static final int SYSTEM_TRANSITION_MAX_ATTEMPTS = 3;
+    private static final long SYSTEM_TRANSITION_BACKOFF_MS = 50;
+
+    // Upper bound for the project id IN list used when loading payment history in bulk
+    private static final int PAYMENT_LOOKUP_BATCH_SIZE = 1000;
+
+    // Paging limits and sortable fields for the list endpoints
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MIN_SEARCH_LENGTH = 2;
+    private static final Set<String> SORTABLE_FIELDS = Set.of(
+            "id", "school", "district", "region", "currentStage", "createdDate", "lastUpdatedAt", "stageChangeTimestamp");
+
+    // Cursor mode always walks the most recently updated projects first; id breaks ties
+    private static final Sort KEYSET_SORT = Sort.by(Sort.Order.desc("lastUpdatedAt"), Sort.Order.desc("id"));
 
     @Transactional
     public ProjectDto createProject(CreateProjectRequest request, String createdBy, String createdByRole) {
-        // Check for duplicate contact number
-        if (request.getContactNumber() != null && !request.getContactNumber().isEmpty()) {
-            projectRepository.findByContactNumber(request.getContactNumber())
-                .ifPresent(p -> {
-                    throw new RuntimeException("A project with this contact number already exists");
-                });
-        }
-
         Project project = Project.builder()
                 .school(request.getSchool())
                 .contactPerson(request.getContactPerson())
@@ -83,21 +134,28 @@ public class ProjectService {
                 .isLocked(false)
                 .build();
 
-        project = projectRepository.save(project);
+        // Duplicate contact numbers are rejected by the unique index, not by a lookup before the insert
+        project = saveCheckingContactNumber(project);
 
         // Log creation
         logActivity(project.getId(), "CREATED", null, null, null, createdBy, createdByRole, "Project created");
 
         // Log initial stage
         logStageChange(project.getId(), null, STAGE_LEAD, createdBy, createdByRole, "Initial stage", false);
+        invalidateAnalytics();
+        if (typeaheadIndex != null) {
+            typeaheadIndex.indexAfterCommit(List.of(project));
+        }
 
         return convertToDto(project);
     }
 
     @Transactional
-    public ProjectDto updateProject(Long id, CreateProjectRequest request, String updatedBy, String updatedByRole) {
+    public ProjectDto updateProject(Long id, CreateProjectRequest request, String updatedBy, String updatedByRole,
+                                    Collection<Long> expectedVersions) {
         Project project = projectRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Project not found with id: " + id));
+        checkVersion(project, expectedVersions);
 
         // Check stage-based editing permissions
         String currentStage = project.getCurrentStage();
@@ -157,21 +215,71 @@ public class ProjectService {
         if (request.getExecutiveRemarks() != null) project.setExecutiveRemarks(request.getExecutiveRemarks());
 
         project.setLastUpdatedBy(updatedBy);
-        project = projectRepository.save(project);
+        project = saveCheckingContactNumber(project);
 
         String logMessage = isOnboardedOrLater ? 
             "Project executive fields updated" : 
             "Project details updated";
         logActivity(project.getId(), "FIELD_UPDATED", null, null, null, updatedBy, updatedByRole, logMessage);
+        if (typeaheadIndex != null) {
+            typeaheadIndex.indexAfterCommit(List.of(project));
+        }
 
         return convertToDto(project);
     }
 
-    @Transactional
-    public ProjectDto transitionStage(Long id, String toStage, String remarks, String changedBy, String changedByRole, boolean isSystemTriggered) {
-        Project project = projectRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Project not found with id: " + id));
+    /**
+     * User-requested stage change. Automation it triggers (ONBOARDED -> SALES) runs once it has committed.
+     */
+    public ProjectDto transitionStage(Long id, String toStage, String remarks, String changedBy, String changedByRole) {
+        Project project = transactionTemplate.execute(status -> applyStageTransition(
+                projectRepository.findById(id).orElseThrow(() -> new RuntimeException("Project not found with id: " + id)),
+                toStage, remarks, changedBy, changedByRole, false));
+
+        // When ONBOARDED, automatically move to SALES queue
+        if (STAGE_ONBOARDED.equals(project.getCurrentStage())) {
+            project = runSystemTransition(id, STAGE_ONBOARDED, STAGE_SALES, "Auto-assigned to Sales Coordinator");
+        }
+        return convertToDto(project);
+    }
 
+    /**
+     * System follow-up transition in a transaction of its own. The project is re-read on every attempt and
+     * only moved while it is still in fromStage, so retrying after a concurrent edit cannot undo that edit.
+     * After the last attempt the project is returned as it is; the caller's own change is already committed.
+     */
+    private Project runSystemTransition(Long id, String fromStage, String toStage, String remarks) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> {
+                    Project project = projectRepository.findById(id)
+                            .orElseThrow(() -> new RuntimeException("Project not found with id: " + id));
+                    if (!fromStage.equals(project.getCurrentStage())) {
+                        return project;
+                    }
+                    return applyStageTransition(project, toStage, remarks, SYSTEM_USER, SYSTEM_USER, true);
+                });
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= SYSTEM_TRANSITION_MAX_ATTEMPTS) {
+                    log.error("Giving up moving project {} from {} to {} after {} conflicting attempts",
+                            id, fromStage, toStage, attempt);
+                    return projectRepository.findById(id)
+                            .orElseThrow(() -> new RuntimeException("Project not found with id: " + id));
+                }
+                log.warn("Project {} changed concurrently while moving it to {}, retrying (attempt {})", id, toStage, attempt);
+                try {
+                    Thread.sleep(SYSTEM_TRANSITION_BACKOFF_MS * attempt
+                            + ThreadLocalRandom.current().nextLong(SYSTEM_TRANSITION_BACKOFF_MS));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private Project applyStageTransition(Project project, String toStage, String remarks, String changedBy,
+                                         String changedByRole, boolean isSystemTriggered) {
         String fromStage = project.getCurrentStage();
 
         // Validate stage transition (skip for system-triggered transitions)
@@ -199,30 +307,20 @@ public class ProjectService {
             project.setIsLocked(true);
         }
 
-        project = projectRepository.save(project);
+        // Flush so the returned version (the client's next ETag) is the one written
+        project = projectRepository.saveAndFlush(project);
 
         // Log stage change
         logStageChange(project.getId(), fromStage, toStage, changedBy, changedByRole, remarks, isSystemTriggered);
+        invalidateAnalytics();
         
-        // Auto-dismiss alerts when project moves to next stage
+        // Auto-dismiss alerts when project moves to next stage, and schedule the new stage's alert deadlines
         if (alertService != null) {
-            if (STAGE_IN_REVIEW.equals(fromStage)) {
-                alertService.autoDismissAlertsForProject(project.getId(), com.incial.crm.entity.ProjectAlert.AlertType.STAGE_INACTIVITY);
-            }
-            if (STAGE_ACCOUNTS.equals(fromStage)) {
-                alertService.autoDismissAlertsForProject(project.getId(), com.incial.crm.entity.ProjectAlert.AlertType.PAYMENT_DELAY);
-            }
-            if (STAGE_INSTALLATION.equals(fromStage)) {
-                alertService.autoDismissAlertsForProject(project.getId(), com.incial.crm.entity.ProjectAlert.AlertType.INSTALLATION_DELAY);
-            }
+            alertService.autoDismissAlertsForStage(project.getId(), fromStage);
+            alertService.scheduleDeadlines(project);
         }
 
-        // Trigger automation if necessary (only if not already system triggered to prevent recursion)
-        if (!isSystemTriggered) {
-            handleStageAutomation(project, changedBy, changedByRole);
-        }
-
-        return convertToDto(project);
+        return project;
     }
 
     private void validateStageTransition(String fromStage, String toStage, String userRole) {
@@ -281,17 +379,12 @@ public class ProjectService {
         }
     }
 
-    private void handleStageAutomation(Project project, String triggeredBy, String triggeredByRole) {
-        // When ONBOARDED, automatically move to SALES queue
-        if (STAGE_ONBOARDED.equals(project.getCurrentStage())) {
-            transitionStage(project.getId(), STAGE_SALES, "Auto-assigned to Sales Coordinator", "SYSTEM", "SYSTEM", true);
-        }
-    }
-
     @Transactional
-    public ProjectDto updateSalesData(Long id, UpdateSalesDataRequest request, String updatedBy, String updatedByRole) {
+    public ProjectDto updateSalesData(Long id, UpdateSalesDataRequest request, String updatedBy, String updatedByRole,
+                                      Collection<Long> expectedVersions) {
         Project project = projectRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Project not found with id: " + id));
+        checkVersion(project, expectedVersions);
 
         // Verify project is in SALES or ACCOUNTS stage
         if (!STAGE_SALES.equals(project.getCurrentStage()) && !STAGE_ACCOUNTS.equals(project.getCurrentStage())) {
@@ -306,11 +399,19 @@ public class ProjectService {
         if (request.getExpectedDeliveryDate() != null) project.setExpectedDeliveryDate(request.getExpectedDeliveryDate());
         if (request.getSalesRemarks() != null) project.setSalesRemarks(request.getSalesRemarks());
 
+        // A changed invoice in ACCOUNTS moves the stored balance with it
+        if (request.getInvoiceAmount() != null && project.getPendingAmount() != null) {
+            BigDecimal pending = calculatePendingAmount(project.getInvoiceAmount(), project.getAmountReceived());
+            project.setPendingAmount(pending);
+            project.setPaymentStatus(calculatePaymentStatus(pending, project.getAmountReceived()));
+        }
+
         project.setSalesUpdatedTimestamp(LocalDateTime.now());
         project.setLastUpdatedBy(updatedBy);
-        project = projectRepository.save(project);
+        project = projectRepository.saveAndFlush(project);
 
         logActivity(project.getId(), "FIELD_UPDATED", null, null, null, updatedBy, updatedByRole, "Sales data updated");
+        invalidateAnalytics();
 
         return convertToDto(project);
     }
@@ -327,23 +428,33 @@ public class ProjectService {
 
         // Initialize pendingAmount if not already set
         if (project.getPendingAmount() == null) {
-            BigDecimal amountReceived = project.getAmountReceived() != null ? project.getAmountReceived() : BigDecimal.ZERO;
-            BigDecimal pending = project.getInvoiceAmount().subtract(amountReceived);
-            if (pending.compareTo(BigDecimal.ZERO) < 0) {
-                pending = BigDecimal.ZERO;
-            }
-            project.setPendingAmount(pending);
+            project.setPendingAmount(calculatePendingAmount(project.getInvoiceAmount(), project.getAmountReceived()));
             project = projectRepository.save(project);
         }
 
         // Transition to ACCOUNTS stage
-        return transitionStage(id, STAGE_ACCOUNTS, "Ready for accounts processing", updatedBy, updatedByRole, false);
+        return convertToDto(applyStageTransition(project, STAGE_ACCOUNTS, "Ready for accounts processing",
+                updatedBy, updatedByRole, false));
     }
 
-    @Transactional
-    public ProjectDto updateAccountsData(Long id, UpdateAccountsDataRequest request, String updatedBy, String updatedByRole) {
+    public ProjectDto updateAccountsData(Long id, UpdateAccountsDataRequest request, String updatedBy, String updatedByRole,
+                                         Collection<Long> expectedVersions) {
+        Project project = transactionTemplate.execute(status ->
+                recordPayment(id, request, updatedBy, updatedByRole, expectedVersions));
+
+        // Auto-move to INSTALLATION if payment is COMPLETED
+        if ("COMPLETED".equals(project.getPaymentStatus())) {
+            project = runSystemTransition(id, STAGE_ACCOUNTS, STAGE_INSTALLATION, "Payment completed, moving to installation");
+        }
+
+        return convertToDto(project);
+    }
+
+    private Project recordPayment(Long id, UpdateAccountsDataRequest request, String updatedBy, String updatedByRole,
+                                  Collection<Long> expectedVersions) {
         Project project = projectRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Project not found with id: " + id));
+        checkVersion(project, expectedVersions);
 
         // Verify project is in ACCOUNTS stage
         if (!STAGE_ACCOUNTS.equals(project.getCurrentStage())) {
@@ -367,51 +478,46 @@ public class ProjectService {
         
         paymentTransactionRepository.save(payment);
 
-        // Calculate total received from all transactions
-        BigDecimal totalReceived = paymentTransactionRepository.sumAmountPaidByProjectId(id);
-        
-        // Calculate pending amount
-        BigDecimal invoiceAmount = project.getInvoiceAmount();
-        BigDecimal pending = invoiceAmount.subtract(totalReceived);
-        
-        // Clamp pending to 0 if negative (overpayment)
-        if (pending.compareTo(BigDecimal.ZERO) < 0) {
-            pending = BigDecimal.ZERO;
-        }
-
-        // Update payment status based on balance
-        String status;
-        if (pending.compareTo(BigDecimal.ZERO) == 0) {
-            status = "COMPLETED";
-        } else if (totalReceived.compareTo(BigDecimal.ZERO) > 0) {
-            status = "PARTIAL";
-        } else {
-            status = "PENDING";
+        // Totals are kept on the project row: add this payment to the stored amount instead of re-summing the ledger
+        BigDecimal previouslyReceived = project.getAmountReceived() != null ? project.getAmountReceived() : BigDecimal.ZERO;
+        BigDecimal totalReceived = previouslyReceived.add(request.getAmountReceived());
+        BigDecimal pending = calculatePendingAmount(project.getInvoiceAmount(), totalReceived);
+        String status = calculatePaymentStatus(pending, totalReceived);
+
+        // Guarded by the version read above; a concurrent payment makes this match no row and rolls back the insert
+        int updated = projectRepository.addPaymentToTotals(id, project.getVersion(), request.getAmountReceived(),
+                pending, status, updatedBy, LocalDateTime.now());
+        if (updated == 0) {
+            throw new ObjectOptimisticLockingFailureException(Project.class, id);
         }
-
-        // Update project with calculated values
-        project.setPaymentStatus(status);
-        project.setAmountReceived(totalReceived);
-        project.setPendingAmount(pending);
-        project.setAccountsUpdatedTimestamp(LocalDateTime.now());
-        project.setLastUpdatedBy(updatedBy);
-        project = projectRepository.save(project);
+        project = projectRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Project not found with id: " + id));
 
         logActivity(project.getId(), "PAYMENT_ADDED", null, null, null, updatedBy, updatedByRole, 
                     "Payment added: ₹" + request.getAmountReceived() + " | Total: ₹" + totalReceived + " | Pending: ₹" + pending);
+        invalidateAnalytics();
 
-        // Auto-move to INSTALLATION if payment is COMPLETED
-        if ("COMPLETED".equals(status)) {
-            return transitionStage(id, STAGE_INSTALLATION, "Payment completed, moving to installation", "SYSTEM", "SYSTEM", true);
+        return project;
+    }
+
+    public ProjectDto updateInstallationData(Long id, UpdateInstallationDataRequest request, String updatedBy, String updatedByRole,
+                                             Collection<Long> expectedVersions) {
+        Project project = transactionTemplate.execute(status ->
+                saveInstallationData(id, request, updatedBy, updatedByRole, expectedVersions));
+
+        // Auto-move to COMPLETED if installation is WORK_DONE
+        if ("WORK_DONE".equals(request.getInstallationStatus())) {
+            project = runSystemTransition(id, STAGE_INSTALLATION, STAGE_COMPLETED, "Work completed");
         }
 
         return convertToDto(project);
     }
 
-    @Transactional
-    public ProjectDto updateInstallationData(Long id, UpdateInstallationDataRequest request, String updatedBy, String updatedByRole) {
+    private Project saveInstallationData(Long id, UpdateInstallationDataRequest request, String updatedBy,
+                                         String updatedByRole, Collection<Long> expectedVersions) {
         Project project = projectRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Project not found with id: " + id));
+        checkVersion(project, expectedVersions);
 
         // Verify project is in INSTALLATION stage
         if (!STAGE_INSTALLATION.equals(project.getCurrentStage())) {
@@ -430,40 +536,34 @@ public class ProjectService {
 
         project.setInstallationUpdatedTimestamp(LocalDateTime.now());
         project.setLastUpdatedBy(updatedBy);
-        project = projectRepository.save(project);
+        project = projectRepository.saveAndFlush(project);
 
         logActivity(project.getId(), "FIELD_UPDATED", null, null, null, updatedBy, updatedByRole, "Installation data updated");
+        invalidateAnalytics();
 
-        // Auto-move to COMPLETED if installation is WORK_DONE
-        if ("WORK_DONE".equals(request.getInstallationStatus())) {
-            return transitionStage(id, STAGE_COMPLETED, "Work completed", "SYSTEM", "SYSTEM", true);
-        }
-
-        return convertToDto(project);
+        return project;
     }
 
+    @Transactional(readOnly = true)
     public ProjectDto getProjectById(Long id) {
         Project project = projectRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Project not found with id: " + id));
         return convertToDto(project);
     }
 
+    @Transactional(readOnly = true)
     public List<ProjectDto> getAllProjects() {
-        return projectRepository.findAll().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return convertToDtos(projectRepository.findAll());
     }
 
+    @Transactional(readOnly = true)
     public List<ProjectDto> getProjectsByStage(String stage) {
-        return projectRepository.findByCurrentStage(stage).stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return convertToDtos(projectRepository.findByCurrentStage(stage));
     }
 
+    @Transactional(readOnly = true)
     public List<ProjectDto> getProjectsByOwnerRole(String role) {
-        return projectRepository.findByCurrentOwnerRole(role).stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return convertToDtos(projectRepository.findByCurrentOwnerRole(role));
     }
 
     /**
@@ -477,37 +577,279 @@ public class ProjectService {
      * @param executiveName The name of the executive (currently not used for filtering)
      * @return List of all projects with computed executive view status
      */
+    @Transactional(readOnly = true)
     public List<ProjectDto> getExecutiveProjects(String executiveName) {
         // Return ALL projects for full team visibility
         // The executiveViewStatus field is computed in convertToDto() and provides
         // the lifecycle classification for frontend tab grouping
-        return projectRepository.findAll().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return convertToDtos(projectRepository.findAll());
     }
 
+    @Transactional(readOnly = true)
     public List<ProjectDto> getSalesProjects() {
-        return projectRepository.findByStages(List.of(STAGE_SALES, STAGE_ACCOUNTS)).stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return convertToDtos(projectRepository.findByStages(List.of(STAGE_SALES, STAGE_ACCOUNTS)));
     }
 
+    @Transactional(readOnly = true)
     public List<ProjectDto> getAccountsProjects() {
-        return projectRepository.findByCurrentStage(STAGE_ACCOUNTS).stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return convertToDtos(projectRepository.findByCurrentStage(STAGE_ACCOUNTS));
     }
 
+    @Transactional(readOnly = true)
     public List<ProjectDto> getInstallationProjects() {
-        return projectRepository.findByCurrentStage(STAGE_INSTALLATION).stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return convertToDtos(projectRepository.findByCurrentStage(STAGE_INSTALLATION));
     }
 
+    @Transactional(readOnly = true)
     public List<ProjectDto> getCompletedProjects() {
-        return projectRepository.findByCurrentStage(STAGE_COMPLETED).stream()
-                .map(this::convertToDto)
+        return convertToDtos(projectRepository.findByCurrentStage(STAGE_COMPLETED));
+    }
+
+    @Transactional(readOnly = true)
+    public PagedResponse<?> getAllProjects(ProjectPageRequest pageRequest) {
+        return getProjectsPage(null, pageRequest);
+    }
+
+    @Transactional(readOnly = true)
+    public PagedResponse<?> getProjectsByStage(String stage, ProjectPageRequest pageRequest) {
+        return getProjectsPage(List.of(stage), pageRequest);
+    }
+
+    @Transactional(readOnly = true)
+    public PagedResponse<?> getExecutiveProjects(String executiveName, ProjectPageRequest pageRequest) {
+        // Same full team visibility as the unpaged variant
+        return getProjectsPage(null, pageRequest);
+    }
+
+    @Transactional(readOnly = true)
+    public PagedResponse<?> getSalesProjects(ProjectPageRequest pageRequest) {
+        return getProjectsPage(List.of(STAGE_SALES, STAGE_ACCOUNTS), pageRequest);
+    }
+
+    @Transactional(readOnly = true)
+    public PagedResponse<?> getAccountsProjects(ProjectPageRequest pageRequest) {
+        return getProjectsPage(List.of(STAGE_ACCOUNTS), pageRequest);
+    }
+
+    @Transactional(readOnly = true)
+    public PagedResponse<?> getInstallationProjects(ProjectPageRequest pageRequest) {
+        return getProjectsPage(List.of(STAGE_INSTALLATION), pageRequest);
+    }
+
+    @Transactional(readOnly = true)
+    public PagedResponse<?> getCompletedProjects(ProjectPageRequest pageRequest) {
+        return getProjectsPage(List.of(STAGE_COMPLETED), pageRequest);
+    }
+
+    /**
+     * Ranked project search over school, contact person, place, district, project name and contact number.
+     * On PostgreSQL with pg_trgm the match is served by the trigram GIN index; elsewhere a LIKE scan is used.
+     */
+    @Transactional(readOnly = true)
+    public PagedResponse<ProjectSummaryDto> searchProjects(String query, Integer page, Integer size) {
+        String term = query != null ? query.trim().toLowerCase(Locale.ROOT) : "";
+        if (term.length() < MIN_SEARCH_LENGTH) {
+            throw new IllegalArgumentException("Search term must be at least " + MIN_SEARCH_LENGTH + " characters");
+        }
+        int pageSize = size != null ? size : DEFAULT_PAGE_SIZE;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        int pageIndex = page != null ? page : 0;
+        if (pageIndex < 0) {
+            throw new IllegalArgumentException("Page index must not be negative");
+        }
+
+        String escaped = term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        PageRequest pageable = PageRequest.of(pageIndex, pageSize);
+        String pattern = "%" + escaped + "%";
+        Page<Long> ids;
+        if (isTrigramSearchAvailable()) {
+            ids = PageableExecutionUtils.getPage(projectRepository.searchIdsByTrigram(term, pattern, pageable),
+                    pageable, () -> projectRepository.countSearchByTrigram(pattern));
+        } else {
+            ids = PageableExecutionUtils.getPage(projectRepository.searchIdsByLike(pattern, escaped + "%", pageable),
+                    pageable, () -> projectRepository.countSearchByLike(pattern));
+        }
+
+        // Load the page rows in one query and put them back in rank order
+        Map<Long, ProjectSummaryView> rows = projectRepository.findByIdIn(ids.getContent(), ProjectSummaryView.class)
+                .stream()
+                .collect(Collectors.toMap(ProjectSummaryView::getId, Function.identity()));
+        List<ProjectSummaryView> ranked = ids.getContent().stream()
+                .map(rows::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
+
+        return PagedResponse.<ProjectSummaryDto>builder()
+                .content(convertToSummaries(ranked))
+                .size(pageSize)
+                .hasNext(ids.hasNext())
+                .page(pageIndex)
+                .totalElements(ids.getTotalElements())
+                .totalPages(ids.getTotalPages())
+                .build();
+    }
+
+    private boolean isTrigramSearchAvailable() {
+        if (trigramSearchAvailable == null) {
+            boolean postgres = Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())));
+            trigramSearchAvailable = postgres && projectRepository.countTrigramExtension() > 0;
+        }
+        return trigramSearchAvailable;
+    }
+
+    /**
+     * Loads one page (offset mode) or one keyset slice (cursor mode) of projects,
+     * as ProjectSummaryDto rows by default or as full ProjectDto rows for view=full.
+     *
+     * @param stages the stages to include, or null for all projects
+     */
+    private PagedResponse<?> getProjectsPage(List<String> stages, ProjectPageRequest pageRequest) {
+        if (pageRequest.isFullView()) {
+            return getProjectsPage(stages, pageRequest, Project.class, this::convertToDtos,
+                    dto -> encodeCursor(dto.getLastUpdatedAt(), dto.getId()));
+        }
+        return getProjectsPage(stages, pageRequest, ProjectSummaryView.class, this::convertToSummaries,
+                dto -> encodeCursor(dto.getLastUpdatedAt(), dto.getId()));
+    }
+
+    private <T, R> PagedResponse<R> getProjectsPage(List<String> stages, ProjectPageRequest pageRequest, Class<T> type,
+                                                    Function<List<T>, List<R>> mapper, Function<R, String> cursorOf) {
+        int size = pageRequest.getSize() != null ? pageRequest.getSize() : DEFAULT_PAGE_SIZE;
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        if (pageRequest.isCursorMode()) {
+            ScrollPosition position = decodeCursor(pageRequest.getCursor());
+            Window<T> window = stages == null
+                    ? projectRepository.findBy(position, KEYSET_SORT, Limit.of(size), type)
+                    : projectRepository.findByCurrentStageIn(stages, position, KEYSET_SORT, Limit.of(size), type);
+
+            List<R> content = mapper.apply(window.getContent());
+            String nextCursor = window.hasNext() && !content.isEmpty()
+                    ? cursorOf.apply(content.get(content.size() - 1))
+                    : null;
+
+            return PagedResponse.<R>builder()
+                    .content(content)
+                    .size(size)
+                    .hasNext(window.hasNext())
+                    .nextCursor(nextCursor)
+                    .build();
+        }
+
+        int page = pageRequest.getPage() != null ? pageRequest.getPage() : 0;
+        if (page < 0) {
+            throw new IllegalArgumentException("Page index must not be negative");
+        }
+        PageRequest pageable = PageRequest.of(page, size, parseSort(pageRequest.getSort()));
+        Page<T> result = stages == null
+                ? projectRepository.findAllBy(pageable, type)
+                : projectRepository.findByCurrentStageIn(stages, pageable, type);
+
+        return PagedResponse.<R>builder()
+                .content(mapper.apply(result.getContent()))
+                .size(size)
+                .hasNext(result.hasNext())
+                .page(page)
+                .totalElements(result.getTotalElements())
+                .totalPages(result.getTotalPages())
+                .build();
+    }
+
+    /**
+     * Parses "field,direction" (direction defaults to asc). id is always appended as a tie-breaker
+     * so that rows with equal sort values do not move between pages.
+     */
+    private Sort parseSort(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return KEYSET_SORT;
+        }
+        String[] parts = sort.split(",");
+        String field = parts[0].trim();
+        if (!SORTABLE_FIELDS.contains(field)) {
+            throw new IllegalArgumentException("Unsupported sort field: " + field);
+        }
+        Sort.Direction direction = parts.length > 1
+                ? Sort.Direction.fromOptionalString(parts[1].trim()).orElseThrow(
+                        () -> new IllegalArgumentException("Unsupported sort direction: " + parts[1].trim()))
+                : Sort.Direction.ASC;
+        Sort result = Sort.by(direction, field);
+        return "id".equals(field) ? result : result.and(Sort.by(direction, "id"));
+    }
+
+    private String encodeCursor(LocalDateTime lastUpdatedAt, Long id) {
+        String raw = lastUpdatedAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private ScrollPosition decodeCursor(String cursor) {
+        if (cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            Map<String, Object> keys = new LinkedHashMap<>();
+            keys.put("lastUpdatedAt", LocalDateTime.parse(parts[0]));
+            keys.put("id", Long.parseLong(parts[1]));
+            return ScrollPosition.forward(keys);
+        } catch (IllegalArgumentException | DateTimeParseException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Compare the client's If-Match versions with the stored one (null means the client sent no precondition,
+     * an empty list that none of its tags can match). A concurrent change between this check and the flush
+     * is caught by the @Version column instead.
+     */
+    private void checkVersion(Project project, Collection<Long> expectedVersions) {
+        if (expectedVersions != null && !expectedVersions.contains(project.getVersion())) {
+            throw new ProjectVersionMismatchException("Project " + project.getId() + " has changed (version "
+                    + project.getVersion() + ", expected " + expectedVersions + "), reload and try again");
+        }
+    }
+
+    /**
+     * Save and flush so a clash on ux_projects_contact_number_normalized surfaces here as a 409
+     */
+    private Project saveCheckingContactNumber(Project project) {
+        try {
+            return projectRepository.saveAndFlush(project);
+        } catch (DataIntegrityViolationException e) {
+            if (DuplicateContactNumberException.isContactNumberConflict(e)) {
+                throw new DuplicateContactNumberException("A project with this contact number already exists");
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Outstanding balance for an invoice, clamped to 0 on overpayment
+     */
+    private BigDecimal calculatePendingAmount(BigDecimal invoiceAmount, BigDecimal amountReceived) {
+        BigDecimal received = amountReceived != null ? amountReceived : BigDecimal.ZERO;
+        BigDecimal pending = invoiceAmount.subtract(received);
+        return pending.compareTo(BigDecimal.ZERO) < 0 ? BigDecimal.ZERO : pending;
+    }
+
+    private String calculatePaymentStatus(BigDecimal pending, BigDecimal amountReceived) {
+        if (pending.compareTo(BigDecimal.ZERO) == 0) {
+            return "COMPLETED";
+        } else if (amountReceived != null && amountReceived.compareTo(BigDecimal.ZERO) > 0) {
+            return "PARTIAL";
+        }
+        return "PENDING";
+    }
+
+    private void invalidateAnalytics() {
+        if (analyticsSnapshotCache != null) {
+            analyticsSnapshotCache.invalidateAfterCommit();
+        }
     }
 
     private void logActivity(Long projectId, String actionType, String fieldName, String oldValue, String newValue, 
@@ -522,7 +864,7 @@ public class ProjectService {
                 .performedByRole(performedByRole)
                 .remarks(remarks)
                 .build();
-        activityLogRepository.save(log);
+        auditLogWriter.recordActivity(log);
     }
 
     private void logStageChange(Long projectId, String fromStage, String toStage, String changedBy, 
@@ -536,27 +878,61 @@ public class ProjectService {
                 .remarks(remarks)
                 .isSystemTriggered(isSystemTriggered)
                 .build();
-        stageHistoryRepository.save(history);
+        auditLogWriter.recordStageChange(history);
     }
 
     private ProjectDto convertToDto(Project project) {
-        // Load payment history for this project
-        List<PaymentTransaction> payments = paymentTransactionRepository
-                .findByProjectIdOrderByPaymentDateAsc(project.getId());
-        
+        return convertToDtos(List.of(project)).get(0);
+    }
+
+    /**
+     * Converts a batch of projects to DTOs.
+     * Payment history for the whole batch is loaded up front and grouped in memory,
+     * so the cost is one payment query per PAYMENT_LOOKUP_BATCH_SIZE projects instead of two per project.
+     */
+    private List<ProjectDto> convertToDtos(List<Project> projects) {
+        Map<Long, List<PaymentTransaction>> paymentsByProject = loadPaymentsByProject(projects);
+        return projects.stream()
+                .map(project -> convertToDto(project, paymentsByProject.getOrDefault(project.getId(), List.of())))
+                .collect(Collectors.toList());
+    }
+
+    private Map<Long, List<PaymentTransaction>> loadPaymentsByProject(List<Project> projects) {
+        List<Long> projectIds = projects.stream()
+                .map(Project::getId)
+                .distinct()
+                .collect(Collectors.toList());
+
+        Map<Long, List<PaymentTransaction>> paymentsByProject = new HashMap<>();
+        for (int from = 0; from < projectIds.size(); from += PAYMENT_LOOKUP_BATCH_SIZE) {
+            List<Long> batch = projectIds.subList(from, Math.min(from + PAYMENT_LOOKUP_BATCH_SIZE, projectIds.size()));
+            // Results are ordered by payment date, so each per-project list keeps the oldest-first order
+            for (PaymentTransaction payment : paymentTransactionRepository.findByProjectIdInOrderByPaymentDateAsc(batch)) {
+                paymentsByProject.computeIfAbsent(payment.getProjectId(), k -> new ArrayList<>()).add(payment);
+            }
+        }
+        return paymentsByProject;
+    }
+
+    private List<ProjectSummaryDto> convertToSummaries(List<ProjectSummaryView> views) {
+        return views.stream()
+                .map(ProjectSummaryDto::fromView)
+                .collect(Collectors.toList());
+    }
+
+    private ProjectDto convertToDto(Project project, List<PaymentTransaction> payments) {
         // Convert to DTOs
         List<PaymentTransactionDto> paymentHistory = payments.stream()
                 .map(PaymentTransactionDto::fromEntity)
                 .collect(Collectors.toList());
         
-        // Calculate totalReceived and pendingAmount from transactions
-        BigDecimal totalReceived = paymentTransactionRepository.sumAmountPaidByProjectId(project.getId());
-        BigDecimal pendingAmount = BigDecimal.ZERO;
-        if (project.getInvoiceAmount() != null) {
-            pendingAmount = project.getInvoiceAmount().subtract(totalReceived);
-            if (pendingAmount.compareTo(BigDecimal.ZERO) < 0) {
-                pendingAmount = BigDecimal.ZERO;
-            }
+        // Totals are maintained on write (see recordPayment) and checked by PaymentTotalsReconciler
+        BigDecimal totalReceived = project.getAmountReceived() != null ? project.getAmountReceived() : BigDecimal.ZERO;
+        BigDecimal pendingAmount = project.getPendingAmount();
+        if (pendingAmount == null) {
+            pendingAmount = project.getInvoiceAmount() != null
+                    ? calculatePendingAmount(project.getInvoiceAmount(), totalReceived)
+                    : BigDecimal.ZERO;
         }
         
         // Compute executive view status from current workflow stage
@@ -604,6 +980,7 @@ public class ProjectService {
                 .lastUpdatedBy(project.getLastUpdatedBy())
                 .lastUpdatedAt(project.getLastUpdatedAt())
                 .isLocked(project.getIsLocked())
+                .version(project.getVersion())
                 .build();
     }
 
@@ -633,5 +1010,9 @@ public class ProjectService {
 
         // Delete project
         projectRepository.delete(project);
+        invalidateAnalytics();
+        if (typeaheadIndex != null) {
+            typeaheadIndex.removeAfterCommit(id);
+        }
     }
 }
@@ -0,0 +1,260 @@
+package com.incial.crm.service;
+
+import com.incial.crm.dto.ProjectSuggestionDto;
+import com.incial.crm.entity.Project;
+import com.incial.crm.repository.ProjectRepository;
+import com.incial.crm.repository.ProjectTypeaheadView;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-process prefix index over project school, contact person and contact number for the
+ * create-form typeahead. Every word of a name is indexed, so "mary" finds "St Mary School";
+ * contact numbers are indexed by their digits. A lookup is one range scan of a sorted map.
+ * The index is loaded once the application is ready and then follows committed creates,
+ * updates, imports and deletes. Changes to one project are applied inside keysByProject.compute,
+ * so concurrent commits of the same project cannot interleave their key updates.
+ */
+@Component
+@Slf4j
+public class ProjectTypeaheadIndex {
+
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 20;
+
+    private static final String FIELD_SCHOOL = "school";
+    private static final String FIELD_CONTACT_PERSON = "contactPerson";
+    private static final String FIELD_CONTACT_NUMBER = "contactNumber";
+
+    // Local numbers are also indexed without the country code
+    private static final int LOCAL_NUMBER_DIGITS = 10;
+
+    // "<token>\0<projectId>" -> hit; keys of one token are contiguous, so a prefix is a key range
+    private final ConcurrentSkipListMap<String, Hit> tokens = new ConcurrentSkipListMap<>();
+    private final Map<Long, List<String>> keysByProject = new ConcurrentHashMap<>();
+
+    // Ids removed while the initial load was running; the load must not bring them back
+    private final Set<Long> removedDuringLoad = ConcurrentHashMap.newKeySet();
+    private volatile boolean loading;
+    private volatile boolean ready;
+
+    private final ProjectRepository projectRepository;
+    private final Timer suggestTimer;
+
+    public ProjectTypeaheadIndex(ProjectRepository projectRepository, MeterRegistry meterRegistry) {
+        this.projectRepository = projectRepository;
+        this.suggestTimer = Timer.builder("projects.typeahead.suggest")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("projects.typeahead.size", keysByProject, Map::size).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.currentTimeMillis();
+        loading = true;
+        try {
+            for (ProjectTypeaheadView row : projectRepository.findAllBy(ProjectTypeaheadView.class)) {
+                // Rows changed after startup were already indexed from their committed state
+                index(new Entry(row.getId(), row.getSchool(), row.getContactPerson(), row.getContactNumber(),
+                        row.getPlace(), row.getDistrict()), false);
+            }
+        } finally {
+            loading = false;
+            removedDuringLoad.clear();
+        }
+        ready = true;
+        log.info("Project typeahead index loaded: {} projects, {} keys in {} ms",
+                keysByProject.size(), tokens.size(), System.currentTimeMillis() - start);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Projects whose school, contact person or contact number has a word starting with the query
+     */
+    public List<ProjectSuggestionDto> suggest(String query, int limit) {
+        return suggestTimer.record(() -> {
+            List<ProjectSuggestionDto> suggestions = new ArrayList<>();
+            String prefix = normalizeQuery(query);
+            if (prefix.isEmpty()) {
+                return suggestions;
+            }
+
+            Set<Long> seen = new HashSet<>();
+            for (Hit hit : tokens.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+                if (seen.add(hit.entry.id)) {
+                    suggestions.add(hit.toDto());
+                    if (suggestions.size() == limit) {
+                        break;
+                    }
+                }
+            }
+            return suggestions;
+        });
+    }
+
+    /**
+     * Re-index the projects once the current transaction commits (immediately when there is none)
+     */
+    public void indexAfterCommit(Collection<Project> projects) {
+        List<Entry> entries = new ArrayList<>(projects.size());
+        for (Project project : projects) {
+            entries.add(new Entry(project.getId(), project.getSchool(), project.getContactPerson(),
+                    project.getContactNumber(), project.getPlace(), project.getDistrict()));
+        }
+        afterCommit(() -> entries.forEach(this::put));
+    }
+
+    /**
+     * Drop the project from the index once the current transaction commits
+     */
+    public void removeAfterCommit(Long projectId) {
+        afterCommit(() -> remove(projectId));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void put(Entry entry) {
+        index(entry, true);
+    }
+
+    /**
+     * Index the entry, replacing its previous keys (or, for the initial load, only when the project is not
+     * indexed yet and was not removed meanwhile)
+     */
+    private void index(Entry entry, boolean replace) {
+        keysByProject.compute(entry.id, (id, previous) -> {
+            if (!replace && (previous != null || removedDuringLoad.contains(id))) {
+                return previous;
+            }
+            List<String> keys = new ArrayList<>();
+            addWordKeys(keys, entry, FIELD_SCHOOL, entry.school);
+            addWordKeys(keys, entry, FIELD_CONTACT_PERSON, entry.contactPerson);
+            String digits = digitsOf(entry.contactNumber);
+            if (!digits.isEmpty()) {
+                addKey(keys, entry, FIELD_CONTACT_NUMBER, digits);
+                if (digits.length() > LOCAL_NUMBER_DIGITS) {
+                    addKey(keys, entry, FIELD_CONTACT_NUMBER, digits.substring(digits.length() - LOCAL_NUMBER_DIGITS));
+                }
+            }
+
+            if (previous != null) {
+                for (String key : previous) {
+                    if (!keys.contains(key)) {
+                        tokens.remove(key);
+                    }
+                }
+            }
+            return keys;
+        });
+    }
+
+    private void remove(Long projectId) {
+        if (loading) {
+            removedDuringLoad.add(projectId);
+        }
+        keysByProject.computeIfPresent(projectId, (id, keys) -> {
+            keys.forEach(tokens::remove);
+            return null;
+        });
+    }
+
+    private void addWordKeys(List<String> keys, Entry entry, String field, String value) {
+        String normalized = normalizeText(value);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        // The whole value (so multi-word prefixes match) and each later word on its own
+        addKey(keys, entry, field, normalized);
+        for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+            addKey(keys, entry, field, normalized.substring(i + 1));
+        }
+    }
+
+    private void addKey(List<String> keys, Entry entry, String field, String token) {
+        String key = token + '\0' + entry.id;
+        if (!keys.contains(key)) {
+            tokens.put(key, new Hit(entry, field));
+            keys.add(key);
+        }
+    }
+
+    private static String normalizeQuery(String query) {
+        if (query == null) {
+            return "";
+        }
+        // A query of digits and phone punctuation is a number lookup
+        String trimmed = query.trim();
+        if (!trimmed.isEmpty() && trimmed.matches("[0-9+()\\-\\s]+")) {
+            return digitsOf(trimmed);
+        }
+        return normalizeText(trimmed);
+    }
+
+    private static String normalizeText(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.toLowerCase(Locale.ROOT)
+                .replaceAll("[^\\p{L}\\p{N}]+", " ")
+                .trim();
+    }
+
+    private static String digitsOf(String value) {
+        return value == null ? "" : value.replaceAll("\\D", "");
+    }
+
+    @AllArgsConstructor
+    private static class Entry {
+        private final Long id;
+        private final String school;
+        private final String contactPerson;
+        private final String contactNumber;
+        private final String place;
+        private final String district;
+    }
+
+    @AllArgsConstructor
+    private static class Hit {
+        private final Entry entry;
+        private final String field;
+
+        ProjectSuggestionDto toDto() {
+            return ProjectSuggestionDto.builder()
+                    .id(entry.id)
+                    .school(entry.school)
+                    .contactPerson(entry.contactPerson)
+                    .contactNumber(entry.contactNumber)
+                    .place(entry.place)
+                    .district(entry.district)
+                    .matchedField(field)
+                    .build();
+        }
+    }
+}
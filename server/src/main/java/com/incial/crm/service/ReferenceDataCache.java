@@ -0,0 +1,182 @@
+package com.incial.crm.service;
+
+import com.incial.crm.config.ReplicaRoutingDataSource;
+import com.incial.crm.dto.CrmEntryDto;
+import com.incial.crm.dto.UserSnapshot;
+import com.incial.crm.entity.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded in-process caches for rarely changing rows read on every request:
+ * users by email (authentication, /my-crm) and CRM entries by id.
+ * Entries expire after a TTL and are evicted after commit by the services that update or delete them.
+ *
+ * Users are cached as immutable snapshots, never as managed entities, since entries are shared between threads.
+ *
+ * Misses are loaded in the caller's transaction (a read-write one when there is none, so no second connection
+ * is taken from the pool) and routed to the primary with ReplicaRoutingDataSource.onPrimary: a lagging replica
+ * could otherwise hand back the row as it was before an update whose eviction has already run, and that stale
+ * row would then be cached for the full TTL. Callers in a read-only transaction must therefore go through the
+ * cache before their first query.
+ */
+@Component
+@Slf4j
+public class ReferenceDataCache {
+
+    private final Region<String, UserSnapshot> usersByEmail;
+    private final Region<Long, CrmEntryDto> crmEntriesById;
+
+    public ReferenceDataCache(MeterRegistry meterRegistry,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${reference-cache.ttl:10m}") Duration ttl,
+                              @Value("${reference-cache.users.max-entries:1000}") int maxUsers,
+                              @Value("${reference-cache.crm-entries.max-entries:1000}") int maxCrmEntries) {
+        // Joins the caller's transaction; on its own it is read-write, which routes to the primary as well
+        TransactionTemplate primaryReads = new TransactionTemplate(transactionManager);
+        this.usersByEmail = new Region<>("users", ttl, maxUsers, primaryReads, meterRegistry);
+        this.crmEntriesById = new Region<>("crmEntries", ttl, maxCrmEntries, primaryReads, meterRegistry);
+    }
+
+    /**
+     * Cached user for the email, loading it with loader on a miss (absent users are not cached)
+     */
+    public Optional<UserSnapshot> getUser(String email, Function<String, Optional<User>> loader) {
+        return Optional.ofNullable(usersByEmail.get(email, key -> loader.apply(key).map(UserSnapshot::of).orElse(null)));
+    }
+
+    /**
+     * Cached CRM entry, loading it with loader on a miss (a loader exception is passed through and nothing is cached)
+     */
+    public CrmEntryDto getCrmEntry(Long id, Function<Long, CrmEntryDto> loader) {
+        return crmEntriesById.get(id, loader);
+    }
+
+    public void evictUserAfterCommit(String email) {
+        afterCommit(() -> usersByEmail.evict(email));
+    }
+
+    public void evictCrmEntryAfterCommit(Long id) {
+        afterCommit(() -> crmEntriesById.evict(id));
+    }
+
+    /**
+     * Run the eviction once the current transaction commits (immediately when there is none),
+     * so a concurrent reader cannot re-cache the pre-commit row
+     */
+    private void afterCommit(Runnable eviction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eviction.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eviction.run();
+            }
+        });
+    }
+
+    private static class Region<K, V> {
+
+        private final String name;
+        private final Duration ttl;
+        private final Map<K, Entry<V>> entries;
+        private final TransactionTemplate loadTransaction;
+
+        // Bumped on every eviction; a value loaded under an older generation is never published
+        private final AtomicLong generation = new AtomicLong();
+
+        private final Counter hits;
+        private final Counter misses;
+
+        Region(String name, Duration ttl, int maxEntries, TransactionTemplate loadTransaction,
+               MeterRegistry meterRegistry) {
+            this.name = name;
+            this.ttl = ttl;
+            this.loadTransaction = loadTransaction;
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+            this.hits = Counter.builder("reference.cache.requests").tag("cache", name).tag("result", "hit")
+                    .register(meterRegistry);
+            this.misses = Counter.builder("reference.cache.requests").tag("cache", name).tag("result", "miss")
+                    .register(meterRegistry);
+            Gauge.builder("reference.cache.hit_ratio", this, Region::hitRatio).tag("cache", name)
+                    .register(meterRegistry);
+            Gauge.builder("reference.cache.size", this, Region::size).tag("cache", name)
+                    .register(meterRegistry);
+        }
+
+        V get(K key, Function<K, V> loader) {
+            long currentGeneration = generation.get();
+            Entry<V> cached;
+            synchronized (entries) {
+                cached = entries.get(key);
+            }
+            if (cached != null && cached.getLoadedAt().plus(ttl).isAfter(Instant.now())) {
+                hits.increment();
+                return cached.getValue();
+            }
+
+            misses.increment();
+            V value = loadTransaction.execute(status -> ReplicaRoutingDataSource.onPrimary(() -> loader.apply(key)));
+            if (value != null) {
+                synchronized (entries) {
+                    // Skip publishing if an eviction happened while the value was being loaded
+                    if (generation.get() == currentGeneration) {
+                        entries.put(key, new Entry<>(value, Instant.now()));
+                    }
+                }
+            }
+            return value;
+        }
+
+        void evict(K key) {
+            synchronized (entries) {
+                generation.incrementAndGet();
+                entries.remove(key);
+            }
+            log.debug("Evicted {} from {} cache", key, name);
+        }
+
+        double hitRatio() {
+            double total = hits.count() + misses.count();
+            return total == 0 ? 0 : hits.count() / total;
+        }
+
+        double size() {
+            synchronized (entries) {
+                return entries.size();
+            }
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Entry<V> {
+        private final V value;
+        private final Instant loadedAt;
+    }
+}
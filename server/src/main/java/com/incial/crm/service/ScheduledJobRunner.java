@@ -0,0 +1,144 @@
+package com.incial.crm.service;
+
+import com.incial.crm.entity.SchedulerRun;
+import com.incial.crm.repository.SchedulerLockRepository;
+import com.incial.crm.repository.SchedulerRunRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.OptionalInt;
+import java.util.UUID;
+import java.util.function.IntSupplier;
+
+/**
+ * Runs a job on at most one node at a time, using a lease row in scheduler_locks as the cluster-wide lock,
+ * and records every run (node, duration, rows affected, outcome) in scheduler_runs.
+ *
+ * The lease is plain SQL on a shared table, so it works the same on PostgreSQL and H2 and with any number
+ * of application contexts pointed at one database. Each run claims it under its own token, so a second run
+ * on the same node (e.g. a manual trigger during the scheduled one) is refused like any other, and only
+ * the run that took the lease can release it. Expiry is judged on database time.
+ * A node that dies mid-run blocks the job only until its lease expires, so the lease must be longer
+ * than the job normally takes.
+ */
+@Service
+@Slf4j
+public class ScheduledJobRunner {
+
+    public static final String TRIGGER_SCHEDULED = "SCHEDULED";
+    public static final String TRIGGER_MANUAL = "MANUAL";
+
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    private final SchedulerLockRepository lockRepository;
+    private final SchedulerRunRepository runRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String nodeId;
+
+    public ScheduledJobRunner(SchedulerLockRepository lockRepository,
+                              SchedulerRunRepository runRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${scheduler.node-id:}") String nodeId) {
+        this.lockRepository = lockRepository;
+        this.runRepository = runRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Lease bookkeeping commits on its own, whatever the caller's transaction does
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.nodeId = nodeId.isBlank() ? defaultNodeId() : nodeId;
+    }
+
+    /**
+     * Run the job if this run can take the lease
+     *
+     * @return the job's row count, or empty when another run (on any node) holds the lease
+     */
+    public OptionalInt runExclusive(String jobName, Duration lease, String trigger, IntSupplier job) {
+        String owner = nodeId + "#" + UUID.randomUUID();
+        if (!tryAcquire(jobName, owner, lease)) {
+            log.info("Skipping {} ({}): lease held by another run", jobName, trigger);
+            return OptionalInt.empty();
+        }
+
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+        try {
+            int rows = job.getAsInt();
+            recordRun(jobName, trigger, startedAt, start, "SUCCEEDED", rows, null);
+            return OptionalInt.of(rows);
+        } catch (RuntimeException e) {
+            recordRun(jobName, trigger, startedAt, start, "FAILED", null, e.toString());
+            throw e;
+        } finally {
+            release(jobName, owner);
+        }
+    }
+
+    private boolean tryAcquire(String jobName, String owner, Duration lease) {
+        long leaseSeconds = Math.max(lease.toSeconds(), 0);
+        Integer claimed = transactionTemplate.execute(status -> lockRepository.claim(jobName, owner, leaseSeconds));
+        if (claimed != null && claimed > 0) {
+            return true;
+        }
+
+        // First run ever for this job: create the row; losing the insert race means another node has it
+        try {
+            return Boolean.TRUE.equals(transactionTemplate.execute(status ->
+                    !lockRepository.existsById(jobName) && lockRepository.create(jobName, owner, leaseSeconds) > 0));
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    private void release(String jobName, String owner) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> lockRepository.release(jobName, owner));
+        } catch (RuntimeException e) {
+            // The lease still expires on its own
+            log.warn("Could not release lease {}: {}", jobName, e.getMessage());
+        }
+    }
+
+    private void recordRun(String jobName, String trigger, LocalDateTime startedAt, long startNanos,
+                           String status, Integer rows, String error) {
+        long durationMs = Duration.ofNanos(System.nanoTime() - startNanos).toMillis();
+        log.info("{} ({}) {} on {} in {} ms, {} rows", jobName, trigger, status, nodeId, durationMs, rows);
+        try {
+            transactionTemplate.executeWithoutResult(s -> runRepository.save(SchedulerRun.builder()
+                    .jobName(jobName)
+                    .nodeId(nodeId)
+                    .triggerType(trigger)
+                    .startedAt(startedAt)
+                    .finishedAt(LocalDateTime.now())
+                    .durationMs(durationMs)
+                    .status(status)
+                    .rowsAffected(rows)
+                    .errorMessage(error != null && error.length() > MAX_ERROR_LENGTH
+                            ? error.substring(0, MAX_ERROR_LENGTH) : error)
+                    .build()));
+        } catch (RuntimeException e) {
+            log.warn("Could not record run of {}: {}", jobName, e.getMessage());
+        }
+    }
+
+    /**
+     * host:pid plus a random suffix, so several application contexts in one JVM get distinct ids
+     */
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown-host";
+        }
+        return host + ":" + ProcessHandle.current().pid() + ":" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
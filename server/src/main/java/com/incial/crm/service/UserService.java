@@ -1,12 +1,14 @@
 package com.incial.crm.service;
 
 import com.incial.crm.dto.UserDto;
+import com.incial.crm.dto.UserSnapshot;
 import com.incial.crm.entity.User;
 import com.incial.crm.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -17,23 +19,35 @@ import java.util.stream.Collectors;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final ReferenceDataCache referenceDataCache;
 
+    @Transactional(readOnly = true)
     public List<UserDto> getAllUsers() {
         return userRepository.findAll().stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public UserDto getUserById(Long id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
         return convertToDto(user);
     }
 
+    @Transactional(readOnly = true)
     public UserDto getUserByEmail(String email) {
-        User user = userRepository.findByEmail(email)
+        UserSnapshot user = referenceDataCache.getUser(email, userRepository::findByEmail)
                 .orElseThrow(() -> new RuntimeException("User not found with email: " + email));
-        return convertToDto(user);
+        return UserDto.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .email(user.getEmail())
+                .role(user.getRole())
+                .googleId(user.getGoogleId())
+                .avatarUrl(user.getAvatarUrl())
+                .createdAt(user.getCreatedAt())
+                .build();
     }
 
     private UserDto convertToDto(User entity) {
@@ -48,12 +62,14 @@ public class UserService {
                 .build();
     }
 
+    @Transactional
     public Void deleteUser(Long id) {
 
         Optional<User> user = userRepository.findById(id);
 
         if(user.isPresent()){
             userRepository.deleteById(id);
+            referenceDataCache.evictUserAfterCommit(user.get().getEmail());
         }
         return null;
     }
@@ -67,12 +83,14 @@ public class UserService {
     }
 
 
+    @Transactional
     public UserDto updateUserRole(UserDto userDto, Long id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
 
         updateEntityFromDto(user, userDto);
         User updated = userRepository.save(user);
+        referenceDataCache.evictUserAfterCommit(updated.getEmail());
         return convertToDto(updated);
     }
 
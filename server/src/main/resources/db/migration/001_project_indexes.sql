@@ -0,0 +1,8 @@
+-- Indexes for delay alert scans, analytics and duplicate lookups.
+
+CREATE INDEX IF NOT EXISTS idx_projects_stage_changed ON projects (current_stage, stage_change_timestamp);
+CREATE INDEX IF NOT EXISTS idx_projects_owner_role ON projects (current_owner_role);
+CREATE INDEX IF NOT EXISTS idx_projects_created_date ON projects (created_date);
+CREATE INDEX IF NOT EXISTS idx_projects_contact_number ON projects (contact_number);
+
+CREATE INDEX IF NOT EXISTS idx_project_alerts_project_type ON project_alerts (project_id, alert_type, is_active);
@@ -0,0 +1,27 @@
+-- Pooled sequences for the high-volume tables so Hibernate can batch inserts.
+-- Entities reserve ids 50 at a time; each sequence is positioned so the first block starts after the current max(id).
+
+CREATE SEQUENCE IF NOT EXISTS projects_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('projects_seq', GREATEST(COALESCE((SELECT MAX(id) FROM projects), 0), 1));
+ALTER TABLE projects ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE projects ALTER COLUMN id DROP DEFAULT;
+
+CREATE SEQUENCE IF NOT EXISTS project_activity_logs_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('project_activity_logs_seq', GREATEST(COALESCE((SELECT MAX(id) FROM project_activity_logs), 0), 1));
+ALTER TABLE project_activity_logs ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE project_activity_logs ALTER COLUMN id DROP DEFAULT;
+
+CREATE SEQUENCE IF NOT EXISTS project_stage_history_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('project_stage_history_seq', GREATEST(COALESCE((SELECT MAX(id) FROM project_stage_history), 0), 1));
+ALTER TABLE project_stage_history ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE project_stage_history ALTER COLUMN id DROP DEFAULT;
+
+CREATE SEQUENCE IF NOT EXISTS payment_transactions_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('payment_transactions_seq', GREATEST(COALESCE((SELECT MAX(id) FROM payment_transactions), 0), 1));
+ALTER TABLE payment_transactions ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE payment_transactions ALTER COLUMN id DROP DEFAULT;
+
+CREATE SEQUENCE IF NOT EXISTS project_alerts_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('project_alerts_seq', GREATEST(COALESCE((SELECT MAX(id) FROM project_alerts), 0), 1));
+ALTER TABLE project_alerts ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE project_alerts ALTER COLUMN id DROP DEFAULT;
@@ -0,0 +1,12 @@
+-- Trigram index for project search (ProjectRepository.searchIdsByTrigram).
+-- The indexed expression must match ProjectRepository.SEARCH_DOCUMENT exactly.
+-- Without pg_trgm the application falls back to a LIKE scan.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_projects_search_trgm ON projects USING gin (
+    (lower(coalesce(school, '') || ' ' || coalesce(contact_person, '') || ' ' ||
+           coalesce(place, '') || ' ' || coalesce(district, '') || ' ' ||
+           coalesce(project_name, '') || ' ' || coalesce(contact_number, '')))
+    gin_trgm_ops
+);
@@ -0,0 +1,25 @@
+-- Normalized contact number with a unique index; duplicate creates are rejected by the database.
+-- Must match Project.normalizeContactNumber: digits only, last 10 kept. Numbers that differ only before their
+-- last 10 digits (another country code, a prefix) therefore count as duplicates.
+
+ALTER TABLE projects ADD COLUMN IF NOT EXISTS contact_number_normalized VARCHAR(20);
+
+UPDATE projects
+SET contact_number_normalized = NULLIF(RIGHT(regexp_replace(contact_number, '\D', '', 'g'), 10), '');
+
+-- Existing duplicates (review before running the next statement):
+-- SELECT contact_number_normalized, array_agg(id ORDER BY id) FROM projects
+-- WHERE contact_number_normalized IS NOT NULL GROUP BY contact_number_normalized HAVING COUNT(*) > 1;
+
+-- The oldest project keeps the number; later duplicates are left unindexed. Project only recomputes the
+-- normalized value when contact_number itself changes, so these rows stay editable until someone fixes the number.
+UPDATE projects p
+SET contact_number_normalized = NULL
+WHERE EXISTS (SELECT 1 FROM projects o
+              WHERE o.contact_number_normalized = p.contact_number_normalized AND o.id < p.id);
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_projects_contact_number_normalized
+    ON projects (contact_number_normalized) WHERE contact_number_normalized IS NOT NULL;
+
+-- Superseded by the unique index above
+DROP INDEX IF EXISTS idx_projects_contact_number;
@@ -0,0 +1,3 @@
+-- Optimistic locking for projects (Project.version, sent to clients as the ETag).
+
+ALTER TABLE projects ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,14 @@
+-- Payment totals are now maintained on the project row when a payment is recorded, and read from there.
+-- Backfill them from the payment_transactions ledger once so existing rows start in step.
+
+UPDATE projects p
+SET amount_received = COALESCE(pt.total, 0)
+FROM (SELECT project_id, SUM(amount_paid) AS total FROM payment_transactions GROUP BY project_id) pt
+WHERE pt.project_id = p.id
+  AND p.amount_received IS DISTINCT FROM pt.total;
+
+UPDATE projects
+SET pending_amount = GREATEST(invoice_amount - COALESCE(amount_received, 0), 0)
+WHERE pending_amount IS NOT NULL
+  AND invoice_amount IS NOT NULL
+  AND pending_amount <> GREATEST(invoice_amount - COALESCE(amount_received, 0), 0);
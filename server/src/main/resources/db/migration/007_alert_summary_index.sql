@@ -0,0 +1,5 @@
+-- Alert summary: one grouped count of active alerts by severity and type.
+-- Partial index on the active rows only; dismissed alerts pile up and are never counted.
+
+CREATE INDEX IF NOT EXISTS idx_project_alerts_active_severity
+    ON project_alerts (severity, alert_type) WHERE is_active = true;
@@ -0,0 +1,23 @@
+-- Cluster-wide lease for scheduled jobs (only the holder runs the job) and their run history.
+
+CREATE TABLE IF NOT EXISTS scheduler_locks (
+    name         VARCHAR(100) PRIMARY KEY,
+    locked_by    VARCHAR(255),
+    locked_at    TIMESTAMP,
+    locked_until TIMESTAMP NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS scheduler_runs (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    job_name      VARCHAR(100) NOT NULL,
+    node_id       VARCHAR(255) NOT NULL,
+    trigger_type  VARCHAR(20)  NOT NULL,
+    started_at    TIMESTAMP    NOT NULL,
+    finished_at   TIMESTAMP,
+    duration_ms   BIGINT,
+    status        VARCHAR(20)  NOT NULL,
+    rows_affected INTEGER,
+    error_message TEXT
+);
+
+CREATE INDEX IF NOT EXISTS idx_scheduler_runs_job_started ON scheduler_runs (job_name, started_at);
@@ -0,0 +1,19 @@
+-- Delay queue for event-driven alert evaluation: one row per (project, rule) deadline scheduled on stage entry.
+-- Projects already in a rule's stage get no row; the hourly full scan still covers them.
+
+CREATE TABLE IF NOT EXISTS alert_deadlines (
+    id         BIGINT PRIMARY KEY,
+    project_id BIGINT       NOT NULL,
+    rule_name  VARCHAR(100) NOT NULL,
+    due_at     TIMESTAMP    NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_alert_deadlines_due_at ON alert_deadlines (due_at);
+CREATE INDEX IF NOT EXISTS idx_alert_deadlines_project ON alert_deadlines (project_id);
+
+-- Pooled sequence (as in 002) so the deadlines written on every stage transition are inserted in one batch;
+-- also converts the table where an earlier version of this script created an identity column.
+CREATE SEQUENCE IF NOT EXISTS alert_deadlines_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('alert_deadlines_seq', GREATEST(COALESCE((SELECT MAX(id) FROM alert_deadlines), 0), 1));
+ALTER TABLE alert_deadlines ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE alert_deadlines ALTER COLUMN id DROP DEFAULT;
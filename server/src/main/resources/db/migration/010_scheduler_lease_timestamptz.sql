@@ -0,0 +1,6 @@
+-- The scheduler lease is now claimed and checked on database time (CURRENT_TIMESTAMP), stored as absolute
+-- instants so nodes with different JVM/session time zones agree on when it expires.
+
+ALTER TABLE scheduler_locks
+    ALTER COLUMN locked_at TYPE TIMESTAMP WITH TIME ZONE,
+    ALTER COLUMN locked_until TYPE TIMESTAMP WITH TIME ZONE;
@@ -0,0 +1,15 @@
+-- At most one active alert per project and alert type, so concurrent alert generation cannot raise duplicates.
+-- Partial unique index on the active rows only; dismissed alerts of the same type are kept as history.
+
+-- Deactivate existing duplicates first, keeping the oldest active alert of each (project, type)
+UPDATE project_alerts a
+SET is_active = false, dismissed_at = CURRENT_TIMESTAMP, dismissed_by = 'SYSTEM'
+WHERE a.is_active = true
+  AND EXISTS (SELECT 1 FROM project_alerts b
+              WHERE b.project_id = a.project_id
+                AND b.alert_type = a.alert_type
+                AND b.is_active = true
+                AND b.id < a.id);
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_project_alerts_active_type
+    ON project_alerts (project_id, alert_type) WHERE is_active = true;
@@ -0,0 +1,29 @@
+package com.incial.crm.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadReplicaDataSourceConfigTest {
+
+    @Test
+    void replicaPoolInheritsPrimaryHikariSettings() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("spring.datasource.hikari.auto-commit", "false")
+                .withProperty("spring.datasource.hikari.connection-timeout", "20000")
+                .withProperty("spring.datasource.hikari.maximum-pool-size", "10")
+                .withProperty("datasource.replica.hikari.pool-name", "ReplicaPool")
+                .withProperty("datasource.replica.hikari.maximum-pool-size", "3");
+
+        // Building the pool does not connect, so no database is needed
+        try (HikariDataSource replica = new ReadReplicaDataSourceConfig()
+                .replicaDataSource(environment, "jdbc:h2:mem:replica", "sa", "", "")) {
+            assertThat(replica.isAutoCommit()).isFalse();
+            assertThat(replica.getConnectionTimeout()).isEqualTo(20000);
+            assertThat(replica.getPoolName()).isEqualTo("ReplicaPool");
+            assertThat(replica.getMaximumPoolSize()).isEqualTo(3);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.incial.crm.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routing against two in-memory H2 databases, each holding a marker row naming itself
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private ReplicaRoutingDataSource routing;
+    private DataSourceTransactionManager transactionManager;
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = markedDatabase("primary");
+        DataSource replica = markedDatabase("replica");
+
+        routing = new ReplicaRoutingDataSource(Duration.ofMinutes(1), 100);
+        routing.setTargetDataSources(Map.of(
+                ReplicaRoutingDataSource.Target.PRIMARY, primary,
+                ReplicaRoutingDataSource.Target.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+
+        // Same wiring as ReadReplicaDataSourceConfig: the lazy proxy sees the read-only flag first
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbc = new JdbcTemplate(dataSource);
+    }
+
+    @AfterEach
+    void clearUser() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplica() {
+        assertThat(readMarker(true)).isEqualTo("replica");
+    }
+
+    @Test
+    void writeTransactionsUseThePrimary() {
+        assertThat(readMarker(false)).isEqualTo("primary");
+    }
+
+    @Test
+    void usersReadTheirOwnWritesFromThePrimary() {
+        signIn("alice");
+        readMarker(false);
+        assertThat(readMarker(true)).isEqualTo("primary");
+
+        signIn("bob");
+        assertThat(readMarker(true)).isEqualTo("replica");
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhileTheReplicaIsUnavailable() {
+        routing.setReplicaAvailable(false);
+        assertThat(readMarker(true)).isEqualTo("primary");
+
+        routing.setReplicaAvailable(true);
+        assertThat(readMarker(true)).isEqualTo("replica");
+    }
+
+    @Test
+    void primaryHintRoutesAReadOnlyTransactionToThePrimary() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        // The hint is taken inside the read-only transaction, before its first statement (as ReferenceDataCache does)
+        String marker = transaction.execute(status -> ReplicaRoutingDataSource.onPrimary(
+                () -> jdbc.queryForObject("SELECT name FROM marker", String.class)));
+
+        assertThat(marker).isEqualTo("primary");
+        assertThat(readMarker(true)).isEqualTo("replica");
+    }
+
+    private String readMarker(boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status -> jdbc.queryForObject("SELECT name FROM marker", String.class));
+    }
+
+    private static void signIn(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, List.of()));
+    }
+
+    private static DataSource markedDatabase(String name) {
+        DataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE marker (name VARCHAR(20))");
+        jdbc.update("INSERT INTO marker (name) VALUES (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,103 @@
+package com.incial.crm.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.incial.crm.entity.ProjectActivityLog;
+import com.incial.crm.repository.ProjectActivityLogRepository;
+import com.incial.crm.repository.ProjectStageHistoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Spool replay against files in a temporary directory; the writer thread is not started
+ */
+class AuditLogWriterTest {
+
+    @TempDir
+    Path dir;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final List<String> saved = new ArrayList<>();
+
+    private Path spoolFile;
+    private Path replayingFile;
+    private Path replayPositionFile;
+    private Path deadLetterFile;
+    private AuditLogWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        spoolFile = dir.resolve("audit-spool.ndjson");
+        replayingFile = dir.resolve("audit-spool.ndjson.replaying");
+        replayPositionFile = dir.resolve("audit-spool.ndjson.replaying.position");
+        deadLetterFile = dir.resolve("audit-dead-letter.ndjson");
+
+        ProjectActivityLogRepository activityLogRepository = mock(ProjectActivityLogRepository.class);
+        when(activityLogRepository.saveAll(any())).thenAnswer(invocation -> {
+            Iterable<ProjectActivityLog> activities = invocation.getArgument(0);
+            activities.forEach(activity -> saved.add(activity.getRemarks()));
+            return activities;
+        });
+
+        // Batches of 2, replay due on every call
+        writer = new AuditLogWriter(activityLogRepository, mock(ProjectStageHistoryRepository.class),
+                mock(PlatformTransactionManager.class), objectMapper, new SimpleMeterRegistry(),
+                100, 2, Duration.ofMillis(200), Duration.ofMillis(50), Duration.ZERO,
+                spoolFile.toString(), deadLetterFile.toString());
+    }
+
+    @Test
+    void unreadableLinesAreDeadLetteredAndTheRestIsReplayed() throws Exception {
+        Files.write(spoolFile, List.of(event("a1"), "{\"activity\": {\"remarks\"", event("a2"), "null", event("a3")),
+                StandardCharsets.UTF_8);
+
+        writer.replaySpoolIfDue();
+
+        assertThat(saved).containsExactly("a1", "a2", "a3");
+        assertThat(Files.readAllLines(deadLetterFile, StandardCharsets.UTF_8))
+                .containsExactly("{\"activity\": {\"remarks\"", "null");
+        assertThat(Files.exists(spoolFile)).isFalse();
+        assertThat(Files.exists(replayingFile)).isFalse();
+    }
+
+    @Test
+    void leftoverReplayIsResumedBeforeTheNewSpoolAndNotOverwritten() throws Exception {
+        // An earlier replay flushed a1 and a2, then stopped (crash, error) before finishing the file
+        Files.write(replayingFile, List.of(event("a1"), event("a2"), event("a3")), StandardCharsets.UTF_8);
+        Files.writeString(replayPositionFile, "2", StandardCharsets.UTF_8);
+        Files.write(spoolFile, List.of(event("a4")), StandardCharsets.UTF_8);
+
+        writer.replaySpoolIfDue();
+
+        assertThat(saved).containsExactly("a3", "a4");
+        assertThat(Files.exists(spoolFile)).isFalse();
+        assertThat(Files.exists(replayingFile)).isFalse();
+        assertThat(Files.exists(replayPositionFile)).isFalse();
+        assertThat(Files.exists(deadLetterFile)).isFalse();
+    }
+
+    private String event(String remarks) throws Exception {
+        ProjectActivityLog activity = ProjectActivityLog.builder()
+                .projectId(1L)
+                .actionType("FIELD_UPDATED")
+                .performedBy("test@incial.com")
+                .remarks(remarks)
+                .build();
+        return objectMapper.writeValueAsString(new AuditLogWriter.AuditEvent(activity, null));
+    }
+}
@@ -0,0 +1,131 @@
+package com.incial.crm.service;
+
+import com.incial.crm.entity.SchedulerLock;
+import com.incial.crm.repository.SchedulerLockRepository;
+import com.incial.crm.repository.SchedulerRunRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.OptionalInt;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two application contexts ("nodes") sharing one in-memory H2 database, as two instances share PostgreSQL
+ */
+class ScheduledJobRunnerTest {
+
+    private static final String JOB = "test-job";
+    private static final Duration LEASE = Duration.ofMinutes(5);
+
+    private ConfigurableApplicationContext nodeA;
+    private ConfigurableApplicationContext nodeB;
+    private ScheduledJobRunner runnerA;
+    private ScheduledJobRunner runnerB;
+
+    @BeforeEach
+    void setUp() {
+        String url = "jdbc:h2:mem:scheduler-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        nodeA = startNode(url, "node-a");
+        nodeB = startNode(url, "node-b");
+        runnerA = nodeA.getBean(ScheduledJobRunner.class);
+        runnerB = nodeB.getBean(ScheduledJobRunner.class);
+
+        // Same tables as migrations 008 and 010 (ddl-auto is off, as in production)
+        JdbcTemplate jdbc = new JdbcTemplate(nodeA.getBean(DataSource.class));
+        jdbc.execute("CREATE TABLE scheduler_locks (name VARCHAR(100) PRIMARY KEY, locked_by VARCHAR(255), " +
+                "locked_at TIMESTAMP WITH TIME ZONE, locked_until TIMESTAMP WITH TIME ZONE NOT NULL)");
+        jdbc.execute("CREATE TABLE scheduler_runs (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+                "job_name VARCHAR(100) NOT NULL, node_id VARCHAR(255) NOT NULL, trigger_type VARCHAR(20) NOT NULL, " +
+                "started_at TIMESTAMP NOT NULL, finished_at TIMESTAMP, duration_ms BIGINT, status VARCHAR(20) NOT NULL, " +
+                "rows_affected INTEGER, error_message VARCHAR(2000))");
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodeB.close();
+        nodeA.close();
+    }
+
+    @Test
+    void anotherNodeCannotRunWhileTheLeaseIsHeld() {
+        OptionalInt result = runnerA.runExclusive(JOB, LEASE, ScheduledJobRunner.TRIGGER_SCHEDULED, () -> {
+            assertThat(runnerB.runExclusive(JOB, LEASE, ScheduledJobRunner.TRIGGER_MANUAL, () -> 1)).isEmpty();
+            return 7;
+        });
+
+        assertThat(result).isEqualTo(OptionalInt.of(7));
+    }
+
+    @Test
+    void secondRunOnTheSameNodeIsRefused() {
+        runnerA.runExclusive(JOB, LEASE, ScheduledJobRunner.TRIGGER_SCHEDULED, () -> {
+            // e.g. a manual trigger arriving on the node that is running the scheduled job
+            assertThat(runnerA.runExclusive(JOB, LEASE, ScheduledJobRunner.TRIGGER_MANUAL, () -> 1)).isEmpty();
+            // The refused run must not have released the lease of the running one
+            assertThat(runnerB.runExclusive(JOB, LEASE, ScheduledJobRunner.TRIGGER_MANUAL, () -> 1)).isEmpty();
+            return 0;
+        });
+    }
+
+    @Test
+    void leaseIsFreeAgainOnceTheRunFinishes() {
+        runnerA.runExclusive(JOB, LEASE, ScheduledJobRunner.TRIGGER_SCHEDULED, () -> 1);
+
+        assertThat(runnerB.runExclusive(JOB, LEASE, ScheduledJobRunner.TRIGGER_MANUAL, () -> 2))
+                .isEqualTo(OptionalInt.of(2));
+    }
+
+    @Test
+    void expiredLeaseCanBeTakenOverAndIsNotReleasedByTheFormerHolder() {
+        runnerA.runExclusive(JOB, Duration.ZERO, ScheduledJobRunner.TRIGGER_SCHEDULED, () -> {
+            // A's lease has expired: B takes over and holds it past the end of A's run
+            assertThat(runnerB.runExclusive(JOB, LEASE, ScheduledJobRunner.TRIGGER_MANUAL, () -> {
+                assertThat(runnerA.runExclusive(JOB, LEASE, ScheduledJobRunner.TRIGGER_MANUAL, () -> 3)).isEmpty();
+                return 2;
+            })).isEqualTo(OptionalInt.of(2));
+            return 1;
+        });
+    }
+
+    private static ConfigurableApplicationContext startNode(String url, String nodeId) {
+        // Command-line arguments so they win over application.yml
+        return new SpringApplicationBuilder(LeaseTestConfiguration.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + url,
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=none",
+                        "--scheduler.node-id=" + nodeId);
+    }
+
+    @Configuration
+    @ImportAutoConfiguration({DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class,
+            TransactionAutoConfiguration.class})
+    @EntityScan(basePackageClasses = SchedulerLock.class)
+    @EnableJpaRepositories(basePackageClasses = SchedulerLockRepository.class,
+            includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+                    classes = {SchedulerLockRepository.class, SchedulerRunRepository.class}))
+    @Import(ScheduledJobRunner.class)
+    static class LeaseTestConfiguration {
+    }
+}